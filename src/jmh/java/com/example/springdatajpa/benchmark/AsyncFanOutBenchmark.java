@@ -0,0 +1,70 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.dto.MemberDto;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.support.CountMode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 커넥션 풀(10)보다 많은 32개 스레드가 동시에 /members 한 페이지를 요청할 때의 지연시간 분포 (p99 는 결과의 p0.99)
+// 동기: 한 스레드가 컨텐츠 -> count 를 차례로 / 비동기: repositoryExecutor 에서 컨텐츠와 count 를 동시에
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+@State(Scope.Benchmark)
+public class AsyncFanOutBenchmark {
+
+    @Param({"false", "true"}) // Java 21 이상에서만 가상 스레드로 실행된다 (아니면 스레드 풀)
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication(
+            "spring.datasource.hikari.maximum-pool-size=10",
+            "datajpa.repository-executor.virtual-threads=" + virtualThreads);
+        BenchmarkSupport.seedMembers(context, 100_000, 100);
+        readOnly = BenchmarkSupport.transactionTemplate(context, true);
+        memberRepository = context.getBean(MemberRepository.class);
+        pageRequest = PageRequest.of(100, 20, Sort.by("userName"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> sequential() {
+        return readOnly.execute(status -> memberRepository.findMemberDtoPage(pageRequest, CountMode.EXACT));
+    }
+
+    @Benchmark
+    public Page<MemberDto> fanOut() {
+        CompletableFuture<List<MemberDto>> content = memberRepository.findMemberDtoAsync(pageRequest);
+        CompletableFuture<Long> total = memberRepository.countAsync();
+        return content.thenCombine(total, (members, count) -> new PageImpl<>(members, pageRequest, count)).join();
+    }
+}
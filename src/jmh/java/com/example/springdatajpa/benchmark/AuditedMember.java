@@ -0,0 +1,57 @@
+package com.example.springdatajpa.benchmark;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+// AuditingBenchmark 의 before 쪽: BaseEntity 가 AuditListener 로 바꾸기 전의 매핑 그대로 (Member 와 같은 컬럼/시퀀스)
+// jmh 소스에만 있어서 애플리케이션/테스트 스키마에는 생기지 않는다
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AuditedMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audited_member_seq_generator")
+    @SequenceGenerator(name = "audited_member_seq_generator", sequenceName = "audited_member_seq", allocationSize = 50)
+    private Long id;
+    private String userName;
+    private int age;
+
+    @Version
+    private Long version;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    @LastModifiedDate
+    private LocalDateTime lastModified;
+
+    @CreatedBy
+    @Column(updatable = false)
+    private String createdBy;
+
+    @LastModifiedBy
+    private String lastModifiedBy;
+
+    public AuditedMember(String userName, int age) {
+        this.userName = userName;
+        this.age = age;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.entity.AuditListener;
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.data.auditing.CurrentDateTimeProvider;
+import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 엔티티 1,000개의 등록 정보 채우기
+// before: AuditingEntityListener 가 쓰는 AuditingHandler (리플렉션 + 매번 UUID.randomUUID()) -> @CreatedDate 등이 남아있는 AuditedMember
+// after: AuditListener (직접 setter + 트랜잭션당 auditor 한번) -> Member
+// bulkInsertBefore/After 는 같은 방식(50건마다 flush/clear)으로 10,000건 저장하는 전체 비용 (op = 1건)
+// (Member 는 2차 캐시와 TeamStats/MemberIdCache 리스너 비용이 더 붙으므로 after 쪽이 불리하다)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AuditingBenchmark {
+
+    private static final int ENTITIES = 1_000;
+    private static final int INSERT_ROWS = 10_000;
+    private static final int BATCH_SIZE = 50; // hibernate.jdbc.batch_size, 두 엔티티의 시퀀스 allocationSize
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate tx;
+    private MemberRepository memberRepository;
+    private AuditingHandler legacyHandler;
+    private AuditListener auditListener;
+    private EntityManager em;
+    private List<AuditedMember> auditedMembers;
+    private List<Member> members;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        tx = BenchmarkSupport.transactionTemplate(context, false);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        legacyHandler = new AuditingHandler(PersistentEntities.of(context.getBean(JpaMetamodelMappingContext.class)));
+        legacyHandler.setAuditorAware(() -> Optional.of(UUID.randomUUID().toString()));
+        legacyHandler.setDateTimeProvider(CurrentDateTimeProvider.INSTANCE);
+        auditListener = context.getAutowireCapableBeanFactory().createBean(AuditListener.class);
+
+        auditedMembers = new ArrayList<>(ENTITIES);
+        members = new ArrayList<>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            auditedMembers.add(new AuditedMember("member" + i, i));
+            members.add(new Member("member" + i, i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        tx.executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch();
+            em.createQuery("delete from AuditedMember").executeUpdate();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public List<AuditedMember> before() {
+        return tx.execute(status -> {
+            auditedMembers.forEach(legacyHandler::markCreated);
+            return auditedMembers;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public List<Member> after() {
+        return tx.execute(status -> {
+            members.forEach(auditListener::prePersist);
+            return members;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_ROWS)
+    public int bulkInsertBefore() { // persist 할 때 AuditingEntityListener 가 채운다
+        return tx.execute(status -> persistBatched(
+            IntStream.range(0, INSERT_ROWS).mapToObj(i -> new AuditedMember("member" + i, i % 100)).iterator()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_ROWS)
+    public int bulkInsertAfter() { // persist 할 때 AuditListener 가 채운다
+        return tx.execute(status -> persistBatched(
+            IntStream.range(0, INSERT_ROWS).mapToObj(i -> new Member("member" + i, i % 100)).iterator()));
+    }
+
+    private int persistBatched(Iterator<?> entities) { // saveAllBatched 와 같이 BATCH_SIZE 건마다 flush 하고 비운다
+        int count = 0;
+        while (entities.hasNext()) {
+            em.persist(entities.next());
+            if (++count % BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+}
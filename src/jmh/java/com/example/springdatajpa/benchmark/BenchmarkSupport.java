@@ -0,0 +1,81 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.SpringDataJpaApplication;
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.TeamRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+final class BenchmarkSupport { // 벤치마크마다 임베디드 H2(인메모리)로 애플리케이션을 띄운다
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext startApplication(String... properties) {
+        // application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다
+        List<String> args = new ArrayList<>(Arrays.asList(
+            "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=warn",
+            "--logging.level.org.hibernate.SQL=off",
+            "--logging.level.org.hibernate.type=off",
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--decorator.datasource.p6spy.enable-logging=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(SpringDataJpaApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(args.toArray(new String[0]));
+    }
+
+    static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    // 회원 rows 명을 teamCount 개의 팀에 나눠서 저장한다 (teamCount 가 0이면 팀 없음)
+    static void seedMembers(ConfigurableApplicationContext context, int rows, int teamCount) {
+        TransactionTemplate tx = transactionTemplate(context, false);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+
+        List<Team> teams = tx.execute(status -> {
+            List<Team> saved = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                saved.add(teamRepository.save(new Team("team" + i)));
+            }
+            return saved;
+        });
+
+        int chunk = 10_000;
+        for (int start = 0; start < rows; start += chunk) {
+            int from = start;
+            int to = Math.min(rows, start + chunk);
+            tx.executeWithoutResult(status -> memberRepository.saveAllBatched(
+                () -> IntStream.range(from, to)
+                    .mapToObj(i -> newMember(i, teams))
+                    .iterator(), 1_000));
+        }
+    }
+
+    private static Member newMember(int i, List<Team> teams) {
+        Member member = new Member("member" + i, i % 100);
+        if (!teams.isEmpty()) {
+            member.setTeam(teams.get(i % teams.size())); // changeTeam 은 team.members 컬렉션까지 키우므로 쓰지 않는다
+        }
+        return member;
+    }
+}
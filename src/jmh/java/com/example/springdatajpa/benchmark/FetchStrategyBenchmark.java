@@ -0,0 +1,66 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 회원 10,000명 (팀 1,000개) 목록에서 팀 이름까지 읽기: 지연로딩(batch 없음 / batch fetch) vs fetch join
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FetchStrategyBenchmark {
+
+    @Param({"1", "100"}) // hibernate.default_batch_fetch_size (1 = batch fetch 없음)
+    public int batchFetchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 팀이 2차 캐시에서 나오면 비교가 안 되므로 캐시는 끈다
+        context = BenchmarkSupport.startApplication(
+            "spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchFetchSize,
+            "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkSupport.seedMembers(context, 10_000, 1_000);
+        readOnly = BenchmarkSupport.transactionTemplate(context, true);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lazyLoading(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> touchTeams(memberRepository.findMemberCustom(), blackhole));
+    }
+
+    @Benchmark
+    public void fetchJoin(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> touchTeams(memberRepository.findMemberFetchJoin(), blackhole));
+    }
+
+    private static void touchTeams(List<Member> members, Blackhole blackhole) {
+        for (Member member : members) {
+            blackhole.consume(member.getTeam().getName());
+        }
+    }
+}
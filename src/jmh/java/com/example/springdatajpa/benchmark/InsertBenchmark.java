@@ -0,0 +1,74 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 회원 100,000명 저장. 결과(us/op)는 한 명당 시간이므로 1,000,000 / 결과 = rows/sec
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class InsertBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"1", "50"}) // 1 이면 JDBC batch 를 끈 것과 같다
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate tx;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        tx = BenchmarkSupport.transactionTemplate(context, false);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        tx.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveOneByOne() { // 기존 방식: save() 를 한 건씩, 영속성 컨텍스트는 계속 커진다
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                memberRepository.save(new Member("member" + i, i % 100));
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int saveAllBatched() {
+        return tx.execute(status -> memberRepository.saveAllBatched(
+            () -> IntStream.range(0, ROWS).mapToObj(i -> new Member("member" + i, i % 100)).iterator(),
+            batchSize, 1_000));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberCursor;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.MemberWindow;
+import com.example.springdatajpa.repository.support.CountMode;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 마지막 페이지 조회: offset 페이징(+count) vs keyset 페이징
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+    private PageRequest lastPage;
+    private MemberCursor lastPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        BenchmarkSupport.seedMembers(context, rows, 0);
+        readOnly = BenchmarkSupport.transactionTemplate(context, true);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        int lastPageNumber = (rows - 1) / PAGE_SIZE;
+        lastPage = PageRequest.of(lastPageNumber, PAGE_SIZE, Sort.by("userName", "id"));
+        lastPageCursor = cursorAt(lastPageNumber * PAGE_SIZE - 1); // 마지막 페이지 바로 앞 회원
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> offset() {
+        return readOnly.execute(status -> memberRepository.findMemberPage(lastPage, CountMode.EXACT));
+    }
+
+    @Benchmark
+    public MemberWindow keyset() {
+        return readOnly.execute(status -> memberRepository.findMemberWindow(lastPageCursor, PAGE_SIZE));
+    }
+
+    private MemberCursor cursorAt(int position) {
+        EntityManager em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        try {
+            Object[] row = em.createQuery("select m.userName, m.id from Member m order by m.userName, m.id", Object[].class)
+                .setFirstResult(position)
+                .setMaxResults(1)
+                .getSingleResult();
+            return new MemberCursor((String) row[0], (Long) row[1]);
+        } finally {
+            em.close();
+        }
+    }
+}
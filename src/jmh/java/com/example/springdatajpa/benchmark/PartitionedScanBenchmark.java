@@ -0,0 +1,55 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.support.ScanResult;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// 회원 200,000 명 전체 스캔 시간: 동시에 읽는 청크 수(parallelism)를 늘리면 코어 수까지는 줄어들어야 한다
+// 1 은 findAll() 을 keyset 페이지로 나눠 읽는 단일 스레드 배치와 같다
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PartitionedScanBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication(
+            "spring.datasource.hikari.maximum-pool-size=10",
+            "datajpa.scan.parallelism=" + parallelism);
+        BenchmarkSupport.seedMembers(context, 200_000, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long scanAll() {
+        LongAdder ageSum = new LongAdder(); // 배치가 하는 일 대신 나이를 더한다
+        ScanResult result = memberRepository.scanAll("bench-" + runs.incrementAndGet(), parallelism * 4,
+            page -> page.forEach(member -> ageSum.add(member.getAge())));
+        return result.getRows() + ageSum.sum();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.dto.MemberDto;
+import com.example.springdatajpa.dto.MemberSummary;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.support.CountMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 100건 페이지를 MemberDto 로 만들기: 엔티티 조회 후 변환 vs projection. 행당 할당량 = gc.alloc.rate.norm / 100
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startApplication();
+        BenchmarkSupport.seedMembers(context, 10_000, 100);
+        readOnly = BenchmarkSupport.transactionTemplate(context, true);
+        memberRepository = context.getBean(MemberRepository.class);
+        pageRequest = PageRequest.of(0, 100, Sort.by("userName"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> entityThenMap() { // 기존 /members 방식
+        return readOnly.execute(status -> memberRepository.findMemberPage(pageRequest, CountMode.EXACT).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public Page<MemberDto> classProjection() {
+        return readOnly.execute(status -> memberRepository.findMemberDtoPage(pageRequest, CountMode.EXACT));
+    }
+
+    @Benchmark
+    public Page<MemberSummary> interfaceProjection() {
+        return readOnly.execute(status -> memberRepository.findMemberSummaries(pageRequest));
+    }
+}
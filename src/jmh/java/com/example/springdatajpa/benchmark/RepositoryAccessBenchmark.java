@@ -0,0 +1,96 @@
+package com.example.springdatajpa.benchmark;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberJpaRepository;
+import com.example.springdatajpa.repository.MemberRepository;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 리포지토리 계층의 주요 접근 경로 비교 (회원 10,000명 / 팀 100개)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class RepositoryAccessBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String USER_NAME = "member4242";
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private PageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 2차 캐시를 끄지 않으면 프록시 비용이 아니라 캐시와 SQL 을 비교하게 된다
+        context = BenchmarkSupport.startApplication(
+            "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkSupport.seedMembers(context, ROWS, 100);
+        readOnly = BenchmarkSupport.transactionTemplate(context, true);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        pageRequest = PageRequest.of(0, 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 같은 @NamedQuery(Member.findByUserName) 를 EntityManager 로 직접 vs Spring Data 프록시로
+    @Benchmark
+    public List<Member> entityManagerNamedQuery() {
+        return readOnly.execute(status -> memberJpaRepository.findByUserName(USER_NAME));
+    }
+
+    @Benchmark
+    public List<Member> springDataNamedQuery() {
+        return readOnly.execute(status -> memberRepository.findNamedByUserName(USER_NAME));
+    }
+
+    @Benchmark
+    public List<Member> springDataDerivedQuery() { // findListByUserName 은 MemberIdCache 를 타므로 파생 쿼리 하나를 대신 쓴다
+        return readOnly.execute(status -> memberRepository.findByUserNameAndAgeGreaterThan(USER_NAME, 0));
+    }
+
+    @Benchmark
+    public List<Member> springDataAnnotatedQuery() { // @Query (조건에 age 가 하나 더 붙는다)
+        return readOnly.execute(status -> memberRepository.findUser(USER_NAME, 42));
+    }
+
+    @Benchmark
+    public List<Member> fetchJoin() {
+        return readOnly.execute(status -> memberRepository.findMemberFetchJoin());
+    }
+
+    @Benchmark
+    public List<Member> entityGraph() {
+        return readOnly.execute(status -> memberRepository.findMemberEntityGraph());
+    }
+
+    @Benchmark
+    public Page<Member> page() { // 컨텐츠 + count 쿼리
+        return readOnly.execute(status -> memberRepository.findByAge(42, pageRequest));
+    }
+
+    @Benchmark
+    public Slice<Member> slice() { // limit + 1, count 쿼리 없음
+        return readOnly.execute(status -> memberRepository.findSliceByAge(42, pageRequest));
+    }
+}
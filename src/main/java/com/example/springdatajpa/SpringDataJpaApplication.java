@@ -2,13 +2,16 @@ package com.example.springdatajpa;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableScheduling // ConnectionPoolMonitor
 @SpringBootApplication
 public class SpringDataJpaApplication {
 
@@ -18,6 +21,11 @@ public class SpringDataJpaApplication {
 
     @Bean
     public AuditorAware<String> auditorProvider() {
-        return () -> Optional.of(UUID.randomUUID().toString());
+        // 실제로는 세션/시큐리티 컨텍스트에서 꺼낸다. UUID.randomUUID() 는 SecureRandom 을 써서 느리다
+        // (BaseEntity 는 TransactionScopedAuditor 가 트랜잭션당 한번만 호출한다)
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return Optional.of(new UUID(random.nextLong(), random.nextLong()).toString());
+        };
     }
 }
@@ -0,0 +1,43 @@
+package com.example.springdatajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 등록자는 트랜잭션 안에서 바뀌지 않으므로 AuditorAware 를 트랜잭션당 한번만 호출한다 (엔티티 1만건 저장 -> 1번)
+@Component
+public class TransactionScopedAuditor {
+
+    private final AuditorAware<String> auditorAware;
+
+    public TransactionScopedAuditor(AuditorAware<String> auditorAware) {
+        this.auditorAware = auditorAware;
+    }
+
+    public String currentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return resolve();
+        }
+
+        String cached = (String) TransactionSynchronizationManager.getResource(this);
+        if (cached != null) {
+            return cached;
+        }
+        String auditor = resolve();
+        if (auditor != null) {
+            TransactionSynchronizationManager.bindResource(this, auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionScopedAuditor.this);
+                }
+            });
+        }
+        return auditor;
+    }
+
+    private String resolve() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.springdatajpa.config;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+
+@Configuration
+public class AuditingConfig {
+
+    @Bean // 등록/수정 시각의 기준. 테스트에서는 고정 시계로 바꿔 끼울 수 있다
+    public Clock auditingClock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider(Clock auditingClock) { // AuditingEntityListener(Item)도 같은 시계를 쓴다
+        return () -> Optional.of(LocalDateTime.now(auditingClock));
+    }
+}
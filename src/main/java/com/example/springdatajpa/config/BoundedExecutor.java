@@ -0,0 +1,66 @@
+package com.example.springdatajpa.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+// 가상 스레드는 개수 제한이 없지만 커넥션 풀은 있다. 동시에 실행되는 작업 수만 permits 개로 묶는다
+// (대기는 작업 스레드 안에서 하므로 호출한 스레드는 막히지 않는다)
+class BoundedExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    BoundedExecutor(ExecutorService delegate, int permits) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(permits);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(bounded(task));
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return delegate.submit(bounded(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return delegate.submit(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private Runnable bounded(Runnable task) {
+        return () -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        delegate.shutdown();
+        delegate.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
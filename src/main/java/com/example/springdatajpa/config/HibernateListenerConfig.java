@@ -0,0 +1,53 @@
+package com.example.springdatajpa.config;
+
+import com.example.springdatajpa.repository.support.MemberIdCache;
+import com.example.springdatajpa.repository.support.MemberIdCacheListener;
+import com.example.springdatajpa.sql.EntityLoadCounter;
+import com.example.springdatajpa.stats.TeamStatsListener;
+import java.util.Collections;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateListenerConfig { // 하이버네이트 이벤트 리스너 등록
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateListeners(MemberIdCache memberIdCache) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.POST_LOAD, new EntityLoadCounter());
+
+                TeamStatsListener teamStats = new TeamStatsListener();
+                registry.appendListeners(EventType.POST_INSERT, teamStats);
+                registry.appendListeners(EventType.POST_UPDATE, teamStats);
+                registry.appendListeners(EventType.POST_DELETE, teamStats);
+
+                MemberIdCacheListener memberIds = new MemberIdCacheListener(memberIdCache, false);
+                registry.appendListeners(EventType.POST_INSERT, memberIds);
+                registry.appendListeners(EventType.POST_UPDATE, memberIds);
+                registry.appendListeners(EventType.POST_DELETE, memberIds);
+                MemberIdCacheListener committedMemberIds = new MemberIdCacheListener(memberIdCache, true);
+                registry.appendListeners(EventType.POST_COMMIT_INSERT, committedMemberIds);
+                registry.appendListeners(EventType.POST_COMMIT_UPDATE, committedMemberIds);
+                registry.appendListeners(EventType.POST_COMMIT_DELETE, committedMemberIds);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put("hibernate.integrator_provider",
+            (IntegratorProvider) () -> Collections.singletonList(integrator));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springdatajpa.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+// datajpa.datasource.pool.auto-size=true 이면 커넥션 풀 크기를 지정하지 않은 풀에 코어 수 * 2 + 1 을 기본값으로 넣는다
+// 빈 후처리가 아니라 프로퍼티로 넣어야 repositoryExecutor 스레드 수(기본값 = maximum-pool-size)도 같이 맞춰진다
+public class PoolSizingEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String[] POOL_SIZE_PROPERTIES = {
+        "spring.datasource.hikari.maximum-pool-size",
+        "datajpa.datasource.replica.hikari.maximum-pool-size"
+    };
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty("datajpa.datasource.pool.auto-size", Boolean.class, false)) {
+            return;
+        }
+
+        // 커넥션 하나는 CPU 하나를 다 쓰지 못한다(디스크, 네트워크 대기). 그 이상은 DB 안에서 문맥 전환/락 경합만 늘어난다
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        Map<String, Object> defaults = new HashMap<>();
+        for (String property : POOL_SIZE_PROPERTIES) {
+            if (!environment.containsProperty(property)) {
+                defaults.put(property, poolSize);
+            }
+        }
+        environment.getPropertySources().addLast(new MapPropertySource("datajpaPoolSizing", defaults));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.springdatajpa.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Slf4j
+@EnableAsync
+@Configuration
+public class RepositoryExecutorConfig { // 리포지토리 조회를 병렬/비동기로 돌릴 때 쓰는 스레드 풀 (스레드마다 커넥션을 하나씩 잡는다)
+
+    // @Async("repositoryExecutor") 메서드와 InClauseChunker 가 같이 쓴다
+    @Bean
+    public AsyncTaskExecutor repositoryExecutor(
+        // 기본값은 커넥션 풀 크기. 이보다 많이 돌려봐야 커넥션을 기다릴 뿐이다
+        @Value("${datajpa.repository-executor.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+        @Value("${datajpa.repository-executor.queue-capacity:100}") int queueCapacity,
+        @Value("${datajpa.repository-executor.virtual-threads:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                return new BoundedExecutor(virtual, poolSize);
+            }
+            log.warn("virtual threads are not available on Java {}, using a thread pool", System.getProperty("java.version"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("repository-");
+        // 큐가 가득 차면 호출한 스레드가 직접 실행한다 (작업을 버리지 않고 요청 속도를 늦춘다)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // 소스는 Java 8 이라 Executors.newVirtualThreadPerTaskExecutor() (Java 21) 를 리플렉션으로 찾는다
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
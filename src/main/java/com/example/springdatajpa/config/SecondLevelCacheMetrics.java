@@ -0,0 +1,28 @@
+package com.example.springdatajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+// 2차 캐시(ehcache) region 별 hit/miss/put/eviction 을 actuator metrics(cache.gets, cache.evictions ...)로 노출한다
+// 하이버네이트 통계(generate_statistics)를 끈 운영에서도 남는다. 값은 ehcache 통계 MBean 에서 읽는다 (ehcache.xml enable-statistics)
+@Component
+public class SecondLevelCacheMetrics {
+
+    public SecondLevelCacheMetrics(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory)) { // 2차 캐시를 끈 경우 (벤치마크 등)
+            return;
+        }
+        CacheManager cacheManager = ((JCacheRegionFactory) regionFactory).getCacheManager();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(meterRegistry, cacheManager.getCache(cacheName));
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.springdatajpa.controller;
 
 import com.example.springdatajpa.dto.MemberDto;
+import com.example.springdatajpa.dto.MemberWindowDto;
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberCursor;
 import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.MemberWindow;
+import com.example.springdatajpa.repository.support.CountMode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_SCROLL_SIZE = 2000; // pageable.max-page-size 와 맞춘다
+
     private final MemberRepository memberRepository;
 
     @GetMapping("/members/{id}")
@@ -31,15 +43,46 @@ public class MemberController {
 
     @GetMapping("/members") // Pageable
     public Page<MemberDto> list(@PageableDefault(size = 5, sort = "userName") Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        return page.map(MemberDto::new);
+        // 엔티티를 만들지 않고 DTO로 바로 조회한다. count 결과는 잠시 캐시한다
+        return memberRepository.findMemberDtoPage(pageable, CountMode.CACHED);
+    }
+
+    @GetMapping("/members/async") // 컨텐츠와 count 를 동시에 조회한다. 기다리는 동안 서블릿 스레드를 반납한다
+    public CompletableFuture<Page<MemberDto>> listAsync(@PageableDefault(size = 5, sort = "userName") Pageable pageable) {
+        CompletableFuture<List<MemberDto>> content = memberRepository.findMemberDtoAsync(pageable);
+        CompletableFuture<Long> total = memberRepository.countAsync();
+        return content.thenCombine(total, (members, count) -> new PageImpl<>(members, pageable, count));
+    }
+
+    @GetMapping("/members/scroll") // Keyset(seek) 페이징: offset, count 쿼리 없이 커서 다음부터 조회
+    public MemberWindowDto scroll(@RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", defaultValue = "5") int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+
+        MemberWindow window = memberRepository.findMemberWindow(decodeCursor(cursor), size);
+        return new MemberWindowDto(window);
+    }
+
+    private MemberCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
 //    @PostConstruct
 //    public void init() {
+//        List<Member> members = new ArrayList<>();
 //        for (int i = 0; i < 100; i++) {
-//            memberRepository.save(new Member("user" + i, i));
+//            members.add(new Member("user" + i, i));
 //        }
+//        memberRepository.saveAllBatched(members, 50); // 한 건씩 save 하는 대신 JDBC batch insert
 //    }
 
 }
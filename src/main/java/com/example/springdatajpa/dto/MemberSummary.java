@@ -0,0 +1,10 @@
+package com.example.springdatajpa.dto;
+
+public interface MemberSummary { // 인터페이스 기반 Projection: select 절의 alias 와 getter 이름을 맞춘다
+
+    Long getId();
+
+    String getUserName();
+
+    String getTeamName();
+}
@@ -0,0 +1,22 @@
+package com.example.springdatajpa.dto;
+
+import com.example.springdatajpa.repository.MemberCursor;
+import com.example.springdatajpa.repository.MemberWindow;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Data;
+
+@Data
+public class MemberWindowDto {
+
+    private List<MemberDto> content;
+    private String next; // 다음 페이지를 위한 커서 토큰 (마지막 페이지면 null)
+
+    public MemberWindowDto(MemberWindow window) {
+        this.content = window.getContent().stream()
+            .map(MemberDto::new)
+            .collect(Collectors.toList());
+        MemberCursor nextCursor = window.nextCursor();
+        this.next = nextCursor == null ? null : nextCursor.encode();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.springdatajpa.entity;
+
+import com.example.springdatajpa.audit.TransactionScopedAuditor;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+// BaseTimeEntity, BaseEntity 의 등록/수정 정보를 채운다.
+// 하이버네이트가 스프링 빈 컨테이너로 만들기 때문에 생성자 주입을 받을 수 있다 (SpringBeanContainer)
+public class AuditListener {
+
+    private final Clock clock;
+    private final TransactionScopedAuditor auditor;
+
+    public AuditListener(Clock clock, TransactionScopedAuditor auditor) {
+        this.clock = clock;
+        this.auditor = auditor;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markCreated(LocalDateTime.now(clock));
+        }
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markCreatedBy(auditor.currentAuditor());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (entity instanceof BaseTimeEntity) {
+            ((BaseTimeEntity) entity).markModified(LocalDateTime.now(clock));
+        }
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markModifiedBy(auditor.currentAuditor());
+        }
+    }
+}
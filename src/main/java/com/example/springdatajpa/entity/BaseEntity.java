@@ -1,32 +1,29 @@
 package com.example.springdatajpa.entity;
 
-import java.time.LocalDateTime;
 import javax.persistence.Column;
-import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-@EntityListeners(value = AuditingEntityListener.class)
 @MappedSuperclass
 @Getter
-public abstract class BaseEntity extends BaseTimeEntity {
+public abstract class BaseEntity extends BaseTimeEntity { // 등록일, 수정일은 BaseTimeEntity 에 있다
 
-    @CreatedDate
-    @Column(updatable = false)
-    private LocalDateTime createdDate;
-
-    @LastModifiedDate
-    private LocalDateTime lastModified;
+    @Version // 수정할 때 where version = ? 로 동시 수정을 감지한다 (충돌하면 OptimisticLockException)
+    private Long version;
 
-    @CreatedBy
+    // 등록자/수정자는 AuditListener 가 채운다 (Spring Data 의 @CreatedBy 등은 쓰지 않는다)
     @Column(updatable = false)
     private String createdBy; // 등록자!
 
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    void markCreatedBy(String auditor) {
+        createdBy = auditor;
+        lastModifiedBy = auditor;
+    }
+
+    void markModifiedBy(String auditor) {
+        lastModifiedBy = auditor;
+    }
 }
@@ -5,19 +5,24 @@ import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-@EntityListeners(value = AuditingEntityListener.class)
+@EntityListeners(value = AuditListener.class) // AuditingEntityListener 처럼 리플렉션으로 필드를 찾지 않고 직접 넣는다
 @MappedSuperclass
 @Getter
 public abstract class BaseTimeEntity {
 
-    @CreatedDate
+    // 등록일/수정일은 AuditListener 가 채운다 (Spring Data 의 @CreatedDate 등은 쓰지 않는다)
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModified;
+
+    void markCreated(LocalDateTime now) {
+        createdDate = now;
+        lastModified = now;
+    }
+
+    void markModified(LocalDateTime now) {
+        lastModified = now;
+    }
 }
@@ -33,12 +33,12 @@ public class Item implements Persistable<String> {
     }
 
     @Override
-    public String getId() {
-        return null;
+    public String getId() { // null 을 돌려주면 엔티티 정보를 id 로 다루는 곳(delete, 2차 캐시 키 등)이 모두 어긋난다
+        return id;
     }
 
     @Override
-    public boolean isNew() {
+    public boolean isNew() { // 직접 넣는 id 라 id 로는 새 엔티티인지 알 수 없다. 이게 false 면 save() 가 merge -> select 후 insert 한다
         return createDate == null;
     }
 }
@@ -1,19 +1,27 @@
 package com.example.springdatajpa.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQuery;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -24,11 +32,21 @@ import lombok.ToString;
     name = "Member.findByUserName",
     query = "select m from Member m where m.userName = :userName"
 )
+@Table(indexes = {
+    @Index(name = "idx_member_user_name_id", columnList = "userName, member_id"), // keyset 페이징, userName 조회용
+    @Index(name = "idx_member_partition_team", columnList = "partition_no, team_id") // 팀 단위 조회
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // userName 조회는 MemberIdCache 가 돌려준 id 로 여기서 회원을 꺼낸다
 public class Member extends BaseEntity {
 //public class Member extends JpaBaseEntity {
 
+    public static final int PARTITIONS = 16; // 바꾸면 기존 회원의 partition_no 를 다시 계산해야 한다
+
+    // IDENTITY 는 insert 를 해야 id를 알 수 있어서 JDBC batch insert 가 꺼진다. (pooled 시퀀스는 50개씩 미리 id를 가져온다)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String userName;
@@ -38,6 +56,13 @@ public class Member extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    // 팀 id 해시로 정한 파티션 번호. 운영 DB 는 이 컬럼으로 테이블을 나눈다
+    // ex) PostgreSQL: create table member (...) partition by list (partition_no)
+    // 팀 단위 조회에 partition_no 조건을 같이 걸면 그 팀의 파티션만 읽는다 (큰 팀이 다른 팀 조회를 느리게 하지 않는다)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
     public Member(String userName) {
         this.userName = userName;
     }
@@ -59,4 +84,14 @@ public class Member extends BaseEntity {
         this.team = team;
         team.getMembers().add(this);
     }
+
+    @PrePersist
+    @PreUpdate // 팀이 바뀌면 파티션도 옮긴다
+    void assignPartition() {
+        partitionNo = partitionOf(team == null ? null : team.getId());
+    }
+
+    public static int partitionOf(Long teamId) { // 팀이 없는 회원은 0번
+        return teamId == null ? 0 : Math.floorMod(Long.hashCode(teamId), PARTITIONS);
+    }
 }
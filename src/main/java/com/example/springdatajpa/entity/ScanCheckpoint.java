@@ -0,0 +1,46 @@
+package com.example.springdatajpa.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// PartitionedScanner 가 나눈 id 범위(청크) 하나의 진행 상황. 작업이 전부 끝나면 지운다
+// 실패한 작업을 같은 jobName 으로 다시 실행하면 completed 가 아닌 청크만 다시 읽는다
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(indexes = @Index(name = "idx_scan_checkpoint_job", columnList = "job_name, chunk_no"))
+public class ScanCheckpoint {
+
+    @Id
+    @Column(name = "checkpoint_id")
+    private String id; // jobName#chunkNo -> 같은 작업을 동시에 두번 시작하면 PK 가 겹쳐서 실패한다
+    @Column(name = "job_name")
+    private String jobName;
+    @Column(name = "chunk_no")
+    private int chunkNo;
+    private long afterId; // 이 id 보다 크고
+    private long toId;    // 이 id 이하인 row 를 읽는다
+    private boolean completed;
+    private long rows;
+
+    public ScanCheckpoint(String jobName, int chunkNo, long afterId, long toId) {
+        this.id = jobName + "#" + chunkNo;
+        this.jobName = jobName;
+        this.chunkNo = chunkNo;
+        this.afterId = afterId;
+        this.toId = toId;
+    }
+
+    public void complete(long rows) {
+        this.completed = true;
+        this.rows = rows;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springdatajpa.entity;
 
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -12,12 +13,17 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 읽기가 대부분이라 2차 캐시에 둔다 (Member.team 지연로딩도 캐시에서 꺼낸다)
 public class Team {
 
     @Id
@@ -26,6 +32,7 @@ public class Team {
     private Long id;
     private String name;
 
+    @BatchSize(size = 100) // 연관관계별 설정 (전역 설정은 hibernate.default_batch_fetch_size)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
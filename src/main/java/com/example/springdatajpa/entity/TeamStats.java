@@ -0,0 +1,39 @@
+package com.example.springdatajpa.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// 팀별 회원 수 / 나이 합계. 대시보드는 member 테이블을 group by 하지 않고 여기서 몇 row 만 읽는다
+// 회원이 바뀔 때마다 TeamStatsListener 가 변화량만 더한다 (다시 세야 하면 TeamStatsRebuilder)
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId; // Team 과 연관관계를 두지 않는다 (팀 삭제와 통계 정리 순서를 묶지 않는다)
+    private long memberCount;
+    private long ageSum;
+
+    public TeamStats(Long teamId, long memberCount, long ageSum) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+    }
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+
+    public void reset(long memberCount, long ageSum) {
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+    }
+}
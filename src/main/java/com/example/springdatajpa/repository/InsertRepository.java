@@ -0,0 +1,12 @@
+package com.example.springdatajpa.repository;
+
+import java.util.List;
+
+// save() 는 새 엔티티인지 판단해서 persist 또는 merge 를 한다. merge 는 insert 전에 select 를 한번 더 한다.
+// 새 데이터인 걸 알고 있을 때(id 를 직접 넣는 적재 등) 판단 없이 항상 persist 만 한다. 이미 있는 id 면 예외가 난다
+public interface InsertRepository<T> {
+
+    <S extends T> S insert(S entity);
+
+    <S extends T> List<S> persistAll(Iterable<S> entities); // flush 한 엔티티는 영속성 컨텍스트에서 분리된다
+}
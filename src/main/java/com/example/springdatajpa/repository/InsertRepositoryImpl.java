@@ -0,0 +1,51 @@
+package com.example.springdatajpa.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional
+public class InsertRepositoryImpl<T> implements InsertRepository<T> {
+
+    private final EntityManager em;
+    private final int flushInterval;
+
+    public InsertRepositoryImpl(EntityManager em, @Value("${datajpa.insert.flush-interval:1000}") int flushInterval) {
+        this.em = em;
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        em.persist(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> persistAll(Iterable<S> entities) {
+        List<S> result = new ArrayList<>();
+        List<S> pending = new ArrayList<>(flushInterval);
+        for (S entity : entities) {
+            em.persist(entity);
+            result.add(entity);
+            pending.add(entity);
+            if (pending.size() >= flushInterval) {
+                flushAndDetach(pending);
+            }
+        }
+        flushAndDetach(pending);
+        return result;
+    }
+
+    // clear() 는 호출한 쪽의 다른 엔티티까지 날려버리므로 여기서 저장한 것만 분리한다
+    private void flushAndDetach(List<?> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        em.flush();
+        pending.forEach(em::detach);
+        pending.clear();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springdatajpa.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberCursor { // keyset 페이징의 기준점 (마지막으로 읽은 회원의 userName, id). userName 이 없는 회원이면 userName 은 null
+
+    private static final char SEPARATOR = ':';
+
+    private final String userName;
+    private final Long id;
+
+    public MemberCursor(String userName, Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("cursor requires an id");
+        }
+        this.userName = userName;
+        this.id = id;
+    }
+
+    // 클라이언트에게는 내부 구조를 감춘 불투명한 토큰으로 전달한다. (userName 이 null 이면 구분자 없이 id 만)
+    public String encode() {
+        String raw = userName == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + userName;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+
+        int separatorIndex = raw.indexOf(SEPARATOR);
+        if (separatorIndex == 0) {
+            throw new IllegalArgumentException("invalid cursor: " + token);
+        }
+
+        try {
+            if (separatorIndex < 0) {
+                return new MemberCursor(null, Long.valueOf(raw));
+            }
+            Long id = Long.valueOf(raw.substring(0, separatorIndex));
+            return new MemberCursor(raw.substring(separatorIndex + 1), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.springdatajpa.repository;
 
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.PersistenceContexts;
+import com.example.springdatajpa.stats.TeamStatsRecorder;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import javax.persistence.EntityManager;
@@ -13,6 +16,12 @@ public class MemberJpaRepository {
     @PersistenceContext
     private EntityManager em;
 
+    private final TeamStatsRecorder teamStatsRecorder;
+
+    public MemberJpaRepository(TeamStatsRecorder teamStatsRecorder) {
+        this.teamStatsRecorder = teamStatsRecorder;
+    }
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -70,10 +79,15 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery(
-            "update Member m set m.age = m.age + 1 "
+        // 벌크 연산은 영속성 컨텍스트를 거치지 않으므로, 이미 올라와 있는 대상 회원만 찾아뒀다가 refresh 한다 (clear 하지 않는다)
+        List<Member> affected = PersistenceContexts.managedEntities(em, Member.class, m -> m.getAge() >= age);
+        teamStatsRecorder.membersAged("m.age >= :age", Collections.singletonMap("age", age));
+        int resultCount = em.createQuery(
+            "update Member m set m.age = m.age + 1, m.version = m.version + 1 "
                 + "where m.age >= :age")
             .setParameter("age", age)
             .executeUpdate();
+        PersistenceContexts.refresh(em, affected);
+        return resultCount;
     }
 }
@@ -1,13 +1,18 @@
 package com.example.springdatajpa.repository;
 
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.EntityStreams;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 @RequiredArgsConstructor
+@Transactional(readOnly = true) // 조회 전용: flush 안 함, 변경감지 스냅샷 없음, readOnly 커넥션 (replica 가 있으면 replica 로)
 public class MemberQueryRepository { // 스프링 빈으로 등록해서 직접 사용해도 된다!
 
     private final EntityManager em;
@@ -17,4 +22,13 @@ public class MemberQueryRepository { // 스프링 빈으로 등록해서 직접
             .getResultList();
     }
 
+    // 전체 회원을 한번에 List로 올리지 않고 DB 커서로 읽는다. (트랜잭션 안에서 try-with-resources 로 사용)
+    public Stream<Member> streamAllMembers(int fetchSize) {
+        Stream<Member> stream = em.createQuery("select m from Member m", Member.class)
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .getResultStream();
+        return EntityStreams.detachEvery(em, stream, fetchSize);
+    }
+
 }
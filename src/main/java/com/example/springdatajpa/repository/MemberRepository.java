@@ -1,10 +1,12 @@
 package com.example.springdatajpa.repository;
 
 import com.example.springdatajpa.dto.MemberDto;
+import com.example.springdatajpa.dto.MemberSummary;
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.LockHints;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
@@ -14,18 +16,21 @@ import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom,
-    JpaSpecificationExecutor<Member> {
+    JpaSpecificationExecutor<Member>, InsertRepository<Member> {
 
     List<Member> findByUserNameAndAgeGreaterThan(String userName, int age);
 
-    //    @Query(name = "Member.findByUserName")
-    List<Member> findByUserName(@Param("userName") String userName);
+    // findByUserName, findListByUserName, findMemberByUserName, findOptionalByUserName, findReadOnlyByUserName 은
+    // MemberRepositoryCustom 에 있다 (MemberIdCache(userName -> id) + 2차 캐시(id -> 회원)로 메모리에서 처리한다)
+
+    @Query(name = "Member.findByUserName") // 캐시 없이 @NamedQuery 를 그대로 실행한다
+    List<Member> findNamedByUserName(@Param("userName") String userName);
 
     @Query("select m from Member m where m.userName = :userName and m.age = :age")
     List<Member> findUser(@Param("userName") String userName, @Param("age") int age);
@@ -36,14 +41,30 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new com.example.springdatajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.userName in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
+    // 필요한 컬럼만 select 해서 엔티티를 만들지 않는다 (영속성 컨텍스트, 스냅샷 없음)
+    @Query(value = "select m.id as id, m.userName as userName, t.name as teamName from Member m left join m.team t",
+        countQuery = "select count(m) from Member m")
+    Page<MemberSummary> findMemberSummaries(Pageable pageable);
 
-    List<Member> findListByUserName(String userName); // 컬렉션
+    @Query(value = "select new com.example.springdatajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m left join m.team t",
+        countQuery = "select count(m) from Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
 
-    Member findMemberByUserName(String userName); // 단건
+    // 비동기 조회: repositoryExecutor 스레드에서 별도 트랜잭션으로 실행된다. 결과는 준영속이라 지연로딩할 연관은 같이 가져온다
+    @Async("repositoryExecutor")
+    @EntityGraph(attributePaths = {"team"})
+    CompletableFuture<Page<Member>> findAsyncByAge(int age, Pageable pageable);
 
-    Optional<Member> findOptionalByUserName(String userName); // 단건 Optional
+    @Async("repositoryExecutor")
+    @Query("select new com.example.springdatajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m left join m.team t")
+    CompletableFuture<List<MemberDto>> findMemberDtoAsync(Pageable pageable); // count 쿼리 없이 컨텐츠만
+
+    @Async("repositoryExecutor")
+    @Query("select count(m) from Member m")
+    CompletableFuture<Long> countAsync();
+
+    @Query("select m from Member m where m.userName in :names")
+    List<Member> findByNames(@Param("names") Collection<String> names);
 
     Page<Member> findByAge(int age, Pageable pageable);
 
@@ -56,10 +77,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Page<Member> findByAge2(int age,
         Pageable pageable); // count 쿼리를 분리할 수 있다! (굳이 join 한 녀석을 count 할 필요가 없다!)
 
-    @Modifying(clearAutomatically = true) // Modifying 애너테이션이 있어야 Jpa의 'ExcuteUpdate'를 호출한다.
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
-
     @Query("select m from Member m left join fetch m.team")
         // `fetch join`은 member join을 할 때, 연관된 팀을 한방에 조회해온다!
     List<Member> findMemberFetchJoin();
@@ -75,10 +92,16 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph(attributePaths = {"team"})
     List<Member> findEntityGraphByUserName(@Param("userName") String userName);
 
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
-    Member findReadOnlyByUserName(String userName);
-
     @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = LockHints.TIMEOUT, value = LockHints.DEFAULT_TIMEOUT)) // 무한정 기다리지 않는다 (넘으면 PessimisticLockingFailureException)
     List<Member> findLockByUserName(String userName);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = LockHints.TIMEOUT, value = LockHints.NO_WAIT))
+    List<Member> findNoWaitByUserName(String userName);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = LockHints.TIMEOUT, value = LockHints.SKIP_LOCKED)) // 다른 트랜잭션이 잡고 있는 회원은 빼고 가져온다
+    List<Member> findSkipLockedByUserName(String userName);
 }
 
@@ -1,10 +1,81 @@
 package com.example.springdatajpa.repository;
 
+import com.example.springdatajpa.dto.MemberDto;
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.BulkProgressListener;
+import com.example.springdatajpa.repository.support.ChunkExecution;
+import com.example.springdatajpa.repository.support.CountMode;
+import com.example.springdatajpa.repository.support.ScanProcessor;
+import com.example.springdatajpa.repository.support.ScanResult;
+import com.example.springdatajpa.repository.support.ShapedSpecification;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
 
+    // userName 조회: MemberIdCache 에서 id 를 찾고 회원은 영속성 컨텍스트/2차 캐시에서 꺼낸다 (id 순)
+    List<Member> findByUserName(String userName);
+
+    List<Member> findListByUserName(String userName); // 컬렉션
+
+    Member findMemberByUserName(String userName); // 단건
+
+    Optional<Member> findOptionalByUserName(String userName); // 단건 Optional
+
+    Member findReadOnlyByUserName(String userName); // 새로 읽는 회원은 변경감지를 하지 않는다 (org.hibernate.readOnly 힌트와 같다)
+
+    // 팀 단위 조회: partition_no 조건을 같이 걸어서 그 팀의 파티션만 읽는다
+    List<Member> findByTeamId(Long teamId);
+
+    List<MemberDto> findMemberDtoByTeamId(Long teamId);
+
+    List<Member> findAll(ShapedSpecification<Member> spec); // findAll(Specification) 대신 모양별로 캐시된 JPQL 로 실행
+
+    // 큰 in 절을 고정 크기 청크로 나눠서 실행한다 (findByNames, findAllById 대신)
+    List<Member> findByNamesChunked(Collection<String> names, ChunkExecution execution);
+
+    List<Member> findAllByIdChunked(Collection<Long> ids, ChunkExecution execution);
+
+    Stream<Member> streamMemberCustom(int fetchSize); // 트랜잭션 안에서 사용하고, 다 쓰면 close 해야 한다!
+
+    Stream<Member> streamMemberWithTeam(int fetchSize);
+
+    MemberWindow findMemberWindow(MemberCursor cursor, int size); // cursor가 null이면 첫 페이지
+
+    Page<Member> findMemberPage(Pageable pageable, CountMode countMode);
+
+    Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode);
+
+    Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode); // 엔티티 없이 DTO로 바로 조회
+
+    int saveAllBatched(Iterable<Member> members, int batchSize); // flush 후 저장한 회원을 분리하는 주기 = batchSize
+
+    int saveAllBatched(Iterable<Member> members, int batchSize, int flushInterval);
+
+    int bulkAgePlus(int age); // 한 번에 update 하고 영속성 컨텍스트를 비운다 (@Modifying(clearAutomatically = true) 와 같다)
+
+    // chunkSize 개씩 나눠서 실행한다. 영속성 컨텍스트를 clear 하지 않고 영향받은 회원만 refresh/evict 한다
+    long bulkAgePlus(int age, int chunkSize, BulkProgressListener listener);
+
+    long bulkDeleteByAgeLessThan(int age, int chunkSize, BulkProgressListener listener);
+
+    // JpaRepository 의 배치 삭제를 덮어쓴다: 지우기 전에 팀 통계에서 빼준다 (JPQL delete 는 TeamStatsListener 가 모른다)
+    void deleteAllInBatch();
+
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    void deleteAllInBatch(Iterable<Member> members);
+
+    // 작업 큐처럼 사용: 다른 워커가 잡지 않은 회원을 id 순으로 limit 명까지 잠그고 가져온다 (호출한 트랜잭션이 끝날 때까지 잠금 유지)
+    List<Member> claimNextByAge(int age, int limit);
+
+    // 배치 작업용 전체 스캔: id 범위를 chunkCount 개로 나눠서 병렬로 읽는다. 실패하면 같은 jobName 으로 다시 호출해서 이어서 읽는다
+    ScanResult scanAll(String jobName, int chunkCount, ScanProcessor<Member> processor);
+
 }
@@ -1,18 +1,407 @@
 package com.example.springdatajpa.repository;
 
+import com.example.springdatajpa.dto.MemberDto;
 import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.BulkProgressListener;
+import com.example.springdatajpa.repository.support.BulkSyncMode;
+import com.example.springdatajpa.repository.support.ChunkExecution;
+import com.example.springdatajpa.repository.support.ChunkedBulkOperations;
+import com.example.springdatajpa.repository.support.CountMode;
+import com.example.springdatajpa.repository.support.CountQueryCache;
+import com.example.springdatajpa.repository.support.EntityStreams;
+import com.example.springdatajpa.repository.support.InClauseChunker;
+import com.example.springdatajpa.repository.support.LockHints;
+import com.example.springdatajpa.repository.support.MemberIdCache;
+import com.example.springdatajpa.repository.support.PartitionedScanner;
+import com.example.springdatajpa.repository.support.RowCountEstimator;
+import com.example.springdatajpa.repository.support.ScanProcessor;
+import com.example.springdatajpa.repository.support.ScanResult;
+import com.example.springdatajpa.repository.support.ShapedSpecification;
+import com.example.springdatajpa.repository.support.SpecificationQueryCache;
+import com.example.springdatajpa.stats.TeamStatsRecorder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
+@Transactional(readOnly = true) // 조회 메서드는 readOnly, 쓰기 메서드에만 @Transactional 을 따로 붙인다 (SimpleJpaRepository 와 같은 방식)
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final EntityManager em;
+    private final CountQueryCache countQueryCache;
+    private final ChunkedBulkOperations bulkOperations;
+    private final SpecificationQueryCache specificationQueryCache;
+    private final InClauseChunker inClauseChunker;
+    private final TeamStatsRecorder teamStatsRecorder;
+    private final PartitionedScanner partitionedScanner;
+    private final MemberIdCache memberIdCache;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
             .getResultList();
     }
+
+    @Override
+    public List<Member> findByUserName(String userName) {
+        return findCachedByUserName(userName, false);
+    }
+
+    @Override
+    public List<Member> findListByUserName(String userName) {
+        return findCachedByUserName(userName, false);
+    }
+
+    @Override
+    public Member findMemberByUserName(String userName) {
+        return single(findCachedByUserName(userName, false));
+    }
+
+    @Override
+    public Optional<Member> findOptionalByUserName(String userName) {
+        return Optional.ofNullable(single(findCachedByUserName(userName, false)));
+    }
+
+    @Override
+    public Member findReadOnlyByUserName(String userName) {
+        return single(findCachedByUserName(userName, true));
+    }
+
+    private List<Member> findCachedByUserName(String userName, boolean readOnly) {
+        Session session = em.unwrap(Session.class);
+        if (session.getHibernateFlushMode() != FlushMode.MANUAL) {
+            session.flush(); // 쿼리의 auto flush 대신: 아직 flush 안 된 저장/이름 변경이 MemberIdCacheListener 로 키를 지우게 한다
+        }
+
+        List<Long> ids = userName == null ? null : memberIdCache.get(userName);
+        if (ids == null) {
+            long generation = memberIdCache.generation();
+            ids = findIdsByUserName(userName);
+            memberIdCache.put(userName, ids, generation);
+        }
+
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(defaultReadOnly || readOnly); // 여기서 새로 읽는 회원만 읽기 전용이 된다
+        try {
+            List<Member> members = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Member member = em.find(Member.class, id); // 영속성 컨텍스트 -> 2차 캐시 -> DB 순으로 찾는다
+                if (member != null) {
+                    members.add(member);
+                }
+            }
+            if (members.size() < ids.size()) { // JPQL 벌크 삭제로 지워진 회원 (이벤트가 없어서 키가 남아 있었다)
+                memberIdCache.evict(userName);
+            }
+            return members;
+        } finally {
+            session.setDefaultReadOnly(defaultReadOnly);
+        }
+    }
+
+    private List<Long> findIdsByUserName(String userName) {
+        if (userName == null) { // 파생 쿼리와 같이 null 이면 is null 로 찾는다
+            return em.createQuery("select m.id from Member m where m.userName is null order by m.id", Long.class)
+                .getResultList();
+        }
+        return em.createQuery("select m.id from Member m where m.userName = :userName order by m.id", Long.class)
+            .setParameter("userName", userName)
+            .getResultList();
+    }
+
+    private static Member single(List<Member> members) {
+        if (members.size() > 1) { // getSingleResult() 의 NonUniqueResultException 을 스프링이 바꿔주는 예외와 같다
+            throw new IncorrectResultSizeDataAccessException(1, members.size());
+        }
+        return members.isEmpty() ? null : members.get(0);
+    }
+
+    @Override
+    public List<Member> findByTeamId(Long teamId) {
+        return em.createQuery("select m from Member m where m.partitionNo = :partitionNo and m.team.id = :teamId",
+                Member.class)
+            .setParameter("partitionNo", Member.partitionOf(teamId))
+            .setParameter("teamId", teamId)
+            .getResultList();
+    }
+
+    @Override
+    public List<MemberDto> findMemberDtoByTeamId(Long teamId) {
+        return em.createQuery("select new com.example.springdatajpa.dto.MemberDto(m.id, m.userName, t.name)"
+                + " from Member m join m.team t where m.partitionNo = :partitionNo and t.id = :teamId", MemberDto.class)
+            .setParameter("partitionNo", Member.partitionOf(teamId))
+            .setParameter("teamId", teamId)
+            .getResultList();
+    }
+
+    @Override
+    public List<Member> findAll(ShapedSpecification<Member> spec) {
+        return specificationQueryCache.findAll(Member.class, spec);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // 트랜잭션은 InClauseChunker 가 연다 (PARALLEL 이면 호출한 스레드는 커넥션을 잡지 않는다)
+    public List<Member> findByNamesChunked(Collection<String> names, ChunkExecution execution) {
+        return inClauseChunker.query(names, execution, chunk ->
+            em.createQuery("select m from Member m where m.userName in :names", Member.class)
+                .setParameter("names", chunk)
+                .getResultList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Member> findAllByIdChunked(Collection<Long> ids, ChunkExecution execution) {
+        return inClauseChunker.query(ids, execution, chunk ->
+            em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", chunk)
+                .getResultList());
+    }
+
+    @Override
+    public Stream<Member> streamMemberCustom(int fetchSize) {
+        return stream(em.createQuery("select m from Member m", Member.class), fetchSize);
+    }
+
+    @Override
+    public Stream<Member> streamMemberWithTeam(int fetchSize) {
+        // findAll()의 @EntityGraph(team) 과 같은 결과를 fetch join 으로 스트리밍한다 (ManyToOne 이라 row 수가 늘지 않는다)
+        return stream(em.createQuery("select m from Member m left join fetch m.team", Member.class), fetchSize);
+    }
+
+    private Stream<Member> stream(TypedQuery<Member> query, int fetchSize) {
+        Stream<Member> stream = query
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize) // DB 커서에서 fetchSize 만큼씩 가져온다
+            .setHint(QueryHints.HINT_READONLY, true) // 변경감지용 스냅샷을 만들지 않는다
+            .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE) // 한번 훑는 row 로 2차 캐시(자주 찾는 회원)를 밀어내지 않는다
+            .getResultStream();
+        return EntityStreams.detachEvery(em, stream, fetchSize);
+    }
+
+    @Override
+    public MemberWindow findMemberWindow(MemberCursor cursor, int size) {
+        // offset 대신 마지막으로 읽은 (userName, id) 다음부터 읽는다. (userName, member_id) 인덱스를 타므로 깊은 페이지도 느려지지 않는다!
+        // userName 이 null 인 회원은 맨 앞에 id 순으로 둔다 (비교 연산으로는 null 이 걸리지 않아서 조건을 나눈다)
+        String orderBy = " order by m.userName asc nulls first, m.id asc";
+        TypedQuery<Member> query;
+        if (cursor == null) {
+            query = em.createQuery("select m from Member m" + orderBy, Member.class);
+        } else if (cursor.getUserName() == null) {
+            query = em.createQuery("select m from Member m"
+                + " where (m.userName is null and m.id > :id) or m.userName is not null" + orderBy, Member.class)
+                .setParameter("id", cursor.getId());
+        } else {
+            query = em.createQuery("select m from Member m"
+                + " where m.userName > :userName or (m.userName = :userName and m.id > :id)" + orderBy, Member.class)
+                .setParameter("userName", cursor.getUserName())
+                .setParameter("id", cursor.getId());
+        }
+
+        List<Member> fetched = query
+            .setMaxResults(size + 1)
+            .getResultList();
+        return MemberWindow.of(fetched, size);
+    }
+
+    @Override
+    public Page<Member> findMemberPage(Pageable pageable, CountMode countMode) {
+        List<Member> content = findContent("select m from Member m", Member.class, Collections.emptyMap(), pageable);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countAll(countMode));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode) {
+        List<MemberDto> content = findContent(
+            "select new com.example.springdatajpa.dto.MemberDto(m.id, m.userName, t.name) from Member m left join m.team t",
+            MemberDto.class, Collections.emptyMap(), pageable);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countAll(countMode));
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode) {
+        Map<String, Object> params = Collections.singletonMap("age", age);
+        List<Member> content = findContent("select m from Member m where m.age = :age", Member.class, params, pageable);
+
+        // 컨텐츠가 페이지 크기보다 작으면 (마지막 페이지 등) count 쿼리 자체를 생략한다
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> count("select count(m) from Member m where m.age = :age", params, countMode));
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        return saveAllBatched(members, batchSize, batchSize);
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize, int flushInterval) {
+        if (batchSize < 1 || flushInterval < 1) {
+            throw new IllegalArgumentException("batchSize and flushInterval must be positive");
+        }
+
+        // 이 세션에서만 JDBC batch 크기를 바꾸고, 끝나면 원래대로 돌려놓는다
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        try {
+            int count = 0;
+            List<Member> pending = new ArrayList<>(flushInterval);
+            for (Member member : members) {
+                em.persist(member);
+                pending.add(member);
+                if (++count % flushInterval == 0) {
+                    flushAndDetach(pending); // 영속성 컨텍스트가 계속 커지지 않도록 비운다 (저장한 엔티티는 준영속 상태가 된다!)
+                }
+            }
+            flushAndDetach(pending);
+            return count;
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    // clear() 는 호출한 쪽의 다른 엔티티까지 날려버리므로 여기서 저장한 회원만 분리한다 (InsertRepositoryImpl 과 같다)
+    private void flushAndDetach(List<Member> pending) {
+        em.flush();
+        pending.forEach(em::detach);
+        pending.clear();
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        Map<String, Object> params = Collections.singletonMap("age", age);
+        teamStatsRecorder.membersAged("m.age >= :age", params); // update 전에 세야 한다 (update 후에는 대상이 달라진다)
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1" // 벌크 연산은 @Version 을 올려주지 않는다
+                + " where m.age >= :age")
+            .setParameter("age", age)
+            .executeUpdate();
+        em.clear();
+        return resultCount;
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch() {
+        teamStatsRecorder.membersRemoved("1 = 1", Collections.emptyMap());
+        memberIdCache.markWritten(); // JPQL delete 는 MemberIdCacheListener 가 모른다
+        em.createQuery("delete from Member m").executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return;
+        }
+        teamStatsRecorder.membersRemoved("m.id in :ids", Collections.singletonMap("ids", idList));
+        memberIdCache.markWritten();
+        em.createQuery("delete from Member m where m.id in :ids")
+            .setParameter("ids", idList)
+            .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch(Iterable<Member> members) {
+        List<Long> ids = new ArrayList<>();
+        members.forEach(member -> ids.add(member.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // 트랜잭션을 새로 열지 않아야 청크마다 커밋된다
+    public long bulkAgePlus(int age, int chunkSize, BulkProgressListener listener) {
+        return bulkOperations.update(Member.class, "e.age = e.age + 1", "e.age >= :age",
+            Collections.singletonMap("age", age), chunkSize, BulkSyncMode.REFRESH, listener,
+            ids -> teamStatsRecorder.membersAged("m.id in :ids and m.age >= :age", chunkParams(ids, age)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long bulkDeleteByAgeLessThan(int age, int chunkSize, BulkProgressListener listener) {
+        memberIdCache.markWritten(); // 트랜잭션 밖이면 청크마다 커밋되므로 표시할 필요가 없다
+        return bulkOperations.delete(Member.class, "e.age < :age", Collections.singletonMap("age", age), chunkSize,
+            listener, ids -> teamStatsRecorder.membersRemoved("m.id in :ids and m.age < :age", chunkParams(ids, age)));
+    }
+
+    private static Map<String, Object> chunkParams(List<Long> ids, int age) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        params.put("age", age);
+        return params;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY) // 잠금은 트랜잭션이 끝나면 풀리므로 처리하는 트랜잭션 안에서 호출해야 한다
+    public List<Member> claimNextByAge(int age, int limit) {
+        return em.createQuery("select m from Member m where m.age = :age order by m.id", Member.class)
+            .setParameter("age", age)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .setHint(LockHints.TIMEOUT, Integer.parseInt(LockHints.SKIP_LOCKED)) // 워커끼리 같은 row 를 기다리지 않는다
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 청크마다 트랜잭션을 따로 연다. 바깥 트랜잭션이 커넥션을 잡고 있을 필요가 없다
+    public ScanResult scanAll(String jobName, int chunkCount, ScanProcessor<Member> processor) {
+        return partitionedScanner.scan(Member.class, jobName, chunkCount, processor);
+    }
+
+    private <T> List<T> findContent(String jpql, Class<T> resultType, Map<String, Object> params, Pageable pageable) {
+        TypedQuery<T> query = em.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), resultType);
+        params.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    private long countAll(CountMode countMode) {
+        if (countMode == CountMode.ESTIMATED) { // 조건이 없는 전체 조회만 테이블 통계로 추정할 수 있다
+            OptionalLong estimate = RowCountEstimator.estimate(em, "member");
+            if (estimate.isPresent()) {
+                return estimate.getAsLong();
+            }
+        }
+        return count("select count(m) from Member m", Collections.emptyMap(), countMode);
+    }
+
+    private long count(String countQuery, Map<String, Object> params, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return executeCount(countQuery, params);
+        }
+        return countQueryCache.get(countQuery, params, () -> executeCount(countQuery, params));
+    }
+
+    private long executeCount(String countQuery, Map<String, Object> params) {
+        TypedQuery<Long> query = em.createQuery(countQuery, Long.class);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
 }
@@ -2,27 +2,39 @@ package com.example.springdatajpa.repository;
 
 import com.example.springdatajpa.entity.Member;
 import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.support.ShapedSpecification;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
-import org.springframework.data.jpa.domain.Specification;
 import org.thymeleaf.util.StringUtils;
 
-public class MemberSpec {
+public class MemberSpec { // 값은 args 로 꺼내 쓴다 -> 모양이 같으면 JPQL 을 다시 만들지 않는다 (SpecificationQueryCache)
 
-    public static Specification<Member> teamName(String teamName) {
-        return (root, query, criteriaBuilder) -> { //root는 처음 찝은 Entity라 생각하면 된다!
-
-            if (StringUtils.isEmpty(teamName)) { // teamName 이 empty이면 null을 반환한다.
-                return null;
-            }
+    // 팀 이름으로는 파티션을 알 수 없어서 모든 파티션을 읽는다. 팀 id 를 알면 teamId 를 쓴다
+    public static ShapedSpecification<Member> teamName(String teamName) {
+        if (StringUtils.isEmpty(teamName)) { // teamName 이 empty이면 조건을 걸지 않는다.
+            return ShapedSpecification.empty();
+        }
 
+        return ShapedSpecification.of("teamName", "teamName", teamName, (root, query, criteriaBuilder, args) -> { //root는 처음 찝은 Entity라 생각하면 된다!
             Join<Member, Team> memberWithTeam = root.join("team", JoinType.INNER);// 회원과 조인
-            return criteriaBuilder.equal(memberWithTeam.get("name"), teamName);
-        };
+            return criteriaBuilder.equal(memberWithTeam.get("name"), args.get("teamName", String.class));
+        });
+    }
+
+    public static ShapedSpecification<Member> teamId(Long teamId) { // 그 팀의 파티션만 읽는다
+        if (teamId == null) {
+            return ShapedSpecification.empty();
+        }
+
+        ShapedSpecification<Member> partition = ShapedSpecification.of("partitionNo", "partitionNo", Member.partitionOf(teamId),
+            (root, query, criteriaBuilder, args) ->
+                criteriaBuilder.equal(root.get("partitionNo"), args.get("partitionNo", Integer.class)));
+        return partition.and(ShapedSpecification.of("teamId", "teamId", teamId, (root, query, criteriaBuilder, args) ->
+            criteriaBuilder.equal(root.get("team").get("id"), args.get("teamId", Long.class))));
     }
 
-    public static Specification<Member> userName(final String userName) {
-        return (root, query, criteriaBuilder) ->
-            criteriaBuilder.equal(root.get("userName"), userName);
+    public static ShapedSpecification<Member> userName(final String userName) {
+        return ShapedSpecification.of("userName", "userName", userName, (root, query, criteriaBuilder, args) ->
+            criteriaBuilder.equal(root.get("userName"), args.get("userName", String.class)));
     }
 }
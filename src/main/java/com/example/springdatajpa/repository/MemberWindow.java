@@ -0,0 +1,33 @@
+package com.example.springdatajpa.repository;
+
+import com.example.springdatajpa.entity.Member;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class MemberWindow { // keyset 페이징 결과: count 쿼리 없이 다음 페이지 존재 여부와 커서만 가진다.
+
+    private final List<Member> content;
+    private final boolean hasNext;
+
+    private MemberWindow(List<Member> content, boolean hasNext) {
+        this.content = content;
+        this.hasNext = hasNext;
+    }
+
+    // size + 1 개를 조회해서 하나가 더 있으면 다음 페이지가 있는 것이다 (Slice와 같은 방식)
+    static MemberWindow of(List<Member> fetched, int size) {
+        if (fetched.size() > size) {
+            return new MemberWindow(fetched.subList(0, size), true);
+        }
+        return new MemberWindow(fetched, false);
+    }
+
+    public MemberCursor nextCursor() {
+        if (!hasNext || content.isEmpty()) {
+            return null;
+        }
+        Member last = content.get(content.size() - 1);
+        return new MemberCursor(last.getUserName(), last.getId());
+    }
+}
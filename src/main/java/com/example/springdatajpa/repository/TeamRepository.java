@@ -1,8 +1,14 @@
 package com.example.springdatajpa.repository;
 
 import com.example.springdatajpa.entity.Team;
+import java.util.List;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
 
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true")) // 쿼리 캐시 (결과 id 목록만 캐시하고 엔티티는 2차 캐시에서 꺼낸다)
+    List<Team> findAll();
 }
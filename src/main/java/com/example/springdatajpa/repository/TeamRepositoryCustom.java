@@ -0,0 +1,16 @@
+package com.example.springdatajpa.repository;
+
+import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.support.BulkProgressListener;
+
+public interface TeamRepositoryCustom {
+
+    long bulkDeleteEmptyTeams(int chunkSize, BulkProgressListener listener); // 소속 회원이 없는 팀을 청크 단위로 삭제
+
+    // JpaRepository 의 배치 삭제를 덮어쓴다: 지운 팀의 통계 row 도 지운다
+    void deleteAllInBatch();
+
+    void deleteAllByIdInBatch(Iterable<Long> ids);
+
+    void deleteAllInBatch(Iterable<Team> teams);
+}
@@ -0,0 +1,57 @@
+package com.example.springdatajpa.repository;
+
+import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.support.BulkProgressListener;
+import com.example.springdatajpa.repository.support.ChunkedBulkOperations;
+import com.example.springdatajpa.stats.TeamStatsRecorder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+    private final ChunkedBulkOperations bulkOperations;
+    private final TeamStatsRecorder teamStatsRecorder;
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // 트랜잭션을 새로 열지 않아야 청크마다 커밋된다
+    public long bulkDeleteEmptyTeams(int chunkSize, BulkProgressListener listener) {
+        return bulkOperations.delete(Team.class, "not exists (select m from Member m where m.team = e)",
+            Collections.emptyMap(), chunkSize, listener, teamStatsRecorder::teamsRemoved);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch() {
+        teamStatsRecorder.teamsRemoved(em.createQuery("select t.id from Team t", Long.class).getResultList());
+        em.createQuery("delete from Team t").executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllByIdInBatch(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return;
+        }
+        teamStatsRecorder.teamsRemoved(idList);
+        em.createQuery("delete from Team t where t.id in :ids")
+            .setParameter("ids", idList)
+            .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch(Iterable<Team> teams) {
+        List<Long> ids = new ArrayList<>();
+        teams.forEach(team -> ids.add(team.getId()));
+        deleteAllByIdInBatch(ids);
+    }
+}
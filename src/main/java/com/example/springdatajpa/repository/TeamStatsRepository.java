@@ -0,0 +1,11 @@
+package com.example.springdatajpa.repository;
+
+import com.example.springdatajpa.entity.TeamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// 읽기 전용으로 쓴다 (변경은 TeamStatsListener)
+// 엔티티 이벤트가 없는 벌크 연산 중 MemberRepository/TeamRepository 의 배치 삭제, bulkAgePlus, bulk* 메서드는 TeamStatsRecorder 로 반영한다.
+// 그 밖의 JPQL/네이티브 update, delete (직접 만든 @Modifying @Query, EntityManager.createQuery 등) 뒤에는 TeamStatsRebuilder.rebuild() 가 필요하다
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+
+}
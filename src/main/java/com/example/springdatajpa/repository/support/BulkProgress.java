@@ -0,0 +1,21 @@
+package com.example.springdatajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkProgress {
+
+    private final int chunk;       // 1부터 시작
+    private final int chunkRows;   // 이번 청크에서 변경된 row 수
+    private final long totalRows;  // 지금까지 변경된 row 수
+    private final Long lastId;     // 이번 청크의 마지막 id (여기서부터 다시 시작할 수 있다)
+
+    public BulkProgress(int chunk, int chunkRows, long totalRows, Long lastId) {
+        this.chunk = chunk;
+        this.chunkRows = chunkRows;
+        this.totalRows = totalRows;
+        this.lastId = lastId;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.springdatajpa.repository.support;
+
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    BulkProgressListener NONE = progress -> {
+    };
+
+    void onChunk(BulkProgress progress); // 청크가 끝날 때마다 (트랜잭션 밖이면 커밋 후) 호출된다
+}
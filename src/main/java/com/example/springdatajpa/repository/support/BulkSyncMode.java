@@ -0,0 +1,7 @@
+package com.example.springdatajpa.repository.support;
+
+public enum BulkSyncMode { // 벌크 update 후 영향받은 엔티티가 영속성 컨텍스트에 있으면 어떻게 맞출지
+
+    REFRESH, // 다시 select 해서 값을 덮어쓴다 (들고 있던 참조를 계속 써도 된다)
+    EVICT    // 준영속으로 만든다 (다음 조회 때 새로 읽는다. select 가 없어서 대상이 많을 때 유리)
+}
@@ -0,0 +1,8 @@
+package com.example.springdatajpa.repository.support;
+
+public enum ChunkExecution { // in 절을 여러 쿼리로 나눴을 때 실행 방법
+
+    SEQUENTIAL, // 호출한 트랜잭션(영속성 컨텍스트)에서 차례로 실행한다
+    PARALLEL    // repositoryExecutor 에서 청크마다 따로 readOnly 트랜잭션으로 실행한다 (결과는 준영속, 커밋된 데이터만 보인다)
+                // 트랜잭션 밖에서 호출해야 한다. 트랜잭션 안이면 SEQUENTIAL 로 실행한다
+}
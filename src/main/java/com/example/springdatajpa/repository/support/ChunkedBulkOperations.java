@@ -0,0 +1,164 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 대량 update/delete 를 id 순서대로 chunkSize 개씩 나눠서 실행한다. (엔티티 별칭은 e)
+// - 트랜잭션 밖에서 호출하면 청크마다 따로 커밋한다 -> 락을 오래 잡지 않고, undo 로그도 청크 크기만큼만 쌓인다
+// - 트랜잭션 안에서 호출하면 그 트랜잭션에 참여한다 (락은 커밋까지 유지된다)
+// - 영속성 컨텍스트를 clear 하지 않고, 영향받은 엔티티만 refresh/evict 한다
+@Slf4j
+@Component
+public class ChunkedBulkOperations {
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+    private final CountQueryCache countQueryCache;
+
+    public ChunkedBulkOperations(EntityManager em, PlatformTransactionManager transactionManager,
+        CountQueryCache countQueryCache) {
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager); // PROPAGATION_REQUIRED
+        this.countQueryCache = countQueryCache;
+    }
+
+    // ex) update(Member.class, "e.age = e.age + 1", "e.age >= :age", params, 1000, REFRESH, listener)
+    public long update(Class<?> entityType, String setClause, String whereClause, Map<String, Object> params,
+        int chunkSize, BulkSyncMode syncMode, BulkProgressListener listener) {
+        return update(entityType, setClause, whereClause, params, chunkSize, syncMode, listener, ids -> {
+        });
+    }
+
+    // beforeChunk: 청크 트랜잭션 안에서 update 직전에 이번 청크의 id 로 호출된다 (ex. 벌크 연산이 바꿀 통계를 미리 세기)
+    public long update(Class<?> entityType, String setClause, String whereClause, Map<String, Object> params,
+        int chunkSize, BulkSyncMode syncMode, BulkProgressListener listener, Consumer<List<Long>> beforeChunk) {
+        String statement = "update " + EntityMetamodels.entityName(em, entityType) + " e set " + setClause
+            + versionIncrement(entityType);
+        return execute(entityType, statement, whereClause, params, chunkSize, syncMode, listener, beforeChunk);
+    }
+
+    public long delete(Class<?> entityType, String whereClause, Map<String, Object> params, int chunkSize,
+        BulkProgressListener listener) {
+        return delete(entityType, whereClause, params, chunkSize, listener, ids -> {
+        });
+    }
+
+    public long delete(Class<?> entityType, String whereClause, Map<String, Object> params, int chunkSize,
+        BulkProgressListener listener, Consumer<List<Long>> beforeChunk) {
+        String statement = "delete from " + EntityMetamodels.entityName(em, entityType) + " e";
+        return execute(entityType, statement, whereClause, params, chunkSize, BulkSyncMode.EVICT, listener, beforeChunk);
+    }
+
+    private long execute(Class<?> entityType, String statement, String whereClause, Map<String, Object> params,
+        int chunkSize, BulkSyncMode syncMode, BulkProgressListener listener, Consumer<List<Long>> beforeChunk) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        String idName = EntityMetamodels.idName(em, entityType);
+        String condition = whereClause == null || whereClause.trim().isEmpty() ? "1 = 1" : "(" + whereClause + ")";
+        // 조건을 만족하는 id 를 keyset(id > :lastId) 으로 잘라온다. PK 인덱스만 타므로 뒤로 갈수록 느려지지 않는다
+        String selectIds = "select e." + idName + " from " + EntityMetamodels.entityName(em, entityType) + " e"
+            + " where " + condition + " and e." + idName + " > :lastId order by e." + idName;
+        // 고른 뒤 다른 트랜잭션이 바꿨을 수 있으므로 조건을 한번 더 건다
+        String chunkStatement = statement + " where e." + idName + " in :ids and " + condition;
+
+        long totalRows = 0;
+        int chunk = 0;
+        Long lastId = Long.MIN_VALUE;
+        while (true) {
+            Long from = lastId;
+            ChunkResult result = chunkTransaction.execute(status -> {
+                List<Long> ids = bind(em.createQuery(selectIds, Long.class), params)
+                    .setParameter("lastId", from)
+                    .setMaxResults(chunkSize)
+                    .getResultList();
+                if (ids.isEmpty()) {
+                    return new ChunkResult(ids, 0);
+                }
+                beforeChunk.accept(ids);
+                int rows = bind(em.createQuery(chunkStatement), params)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+                sync(entityType, ids, syncMode);
+                return new ChunkResult(ids, rows);
+            });
+            if (result.ids.isEmpty()) {
+                break;
+            }
+
+            totalRows += result.rows;
+            lastId = result.ids.get(result.ids.size() - 1);
+            listener.onChunk(new BulkProgress(++chunk, result.rows, totalRows, lastId));
+            log.debug("bulk chunk {} on {}: {} rows (total {}, last id {})", chunk, entityType.getSimpleName(),
+                result.rows, totalRows, lastId);
+
+            if (result.ids.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (totalRows > 0) {
+            countQueryCache.invalidateAll();
+        }
+        return totalRows;
+    }
+
+    // 지금 트랜잭션의 영속성 컨텍스트에 올라와 있는 대상 엔티티만 맞춘다 (청크마다 따로 커밋하는 경우엔 비어있다)
+    private void sync(Class<?> entityType, List<Long> ids, BulkSyncMode syncMode) {
+        List<?> managed = PersistenceContexts.managedEntities(em, entityType, ids);
+        if (managed.isEmpty()) {
+            return;
+        }
+        if (syncMode == BulkSyncMode.REFRESH) {
+            PersistenceContexts.refresh(em, managed);
+        } else {
+            PersistenceContexts.evict(em, managed);
+        }
+    }
+
+    private static <Q extends Query> Q bind(Q query, Map<String, Object> params) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            String name = parameter.getName();
+            if (params.containsKey(name)) {
+                query.setParameter(name, params.get(name));
+            }
+        }
+        return query;
+    }
+
+    // 벌크 update 는 @Version 을 올려주지 않으므로 직접 올린다 (안 그러면 이미 읽어간 쪽의 낙관적 락이 충돌을 못 잡는다)
+    private String versionIncrement(Class<?> entityType) {
+        EntityType<?> type = em.getMetamodel().entity(entityType);
+        if (!type.hasVersionAttribute()) {
+            return "";
+        }
+        String version = type.getSingularAttributes().stream()
+            .filter(SingularAttribute::isVersion)
+            .map(SingularAttribute::getName)
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+        return ", e." + version + " = e." + version + " + 1";
+    }
+
+    private static class ChunkResult {
+
+        private final List<Long> ids;
+        private final int rows;
+
+        private ChunkResult(List<Long> ids, int rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+}
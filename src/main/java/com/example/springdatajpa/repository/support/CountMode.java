@@ -0,0 +1,8 @@
+package com.example.springdatajpa.repository.support;
+
+public enum CountMode { // Page 를 만들 때 전체 개수(count 쿼리)를 어떻게 구할지
+
+    EXACT,     // 매번 count 쿼리를 실행한다 (Spring Data 기본 동작)
+    CACHED,    // 쿼리 + 파라미터 별로 count 결과를 TTL 동안 캐시한다
+    ESTIMATED  // DB 통계의 추정치를 사용한다. 조건이 있는 쿼리는 추정할 수 없으므로 CACHED 로 동작한다
+}
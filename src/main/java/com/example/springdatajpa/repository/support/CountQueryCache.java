@@ -0,0 +1,59 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CountQueryCache { // count 쿼리 결과를 (쿼리, 파라미터) 단위로 잠시 들고 있는다
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<List<Object>, CachedCount> counts = new ConcurrentHashMap<>();
+
+    public CountQueryCache(@Value("${datajpa.paging.count-cache.ttl-millis:30000}") long ttlMillis,
+        @Value("${datajpa.paging.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(String countQuery, Map<String, Object> parameters, LongSupplier loader) {
+        List<Object> key = Arrays.asList(countQuery, new HashMap<>(parameters));
+        long now = System.currentTimeMillis();
+
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+
+        long count = loader.getAsLong();
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(c -> c.expiresAt <= now);
+            if (counts.size() >= maxEntries) { // 그래도 가득 차 있으면 통째로 비운다 (어차피 TTL 짧은 캐시)
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(count, now + ttlMillis));
+        return count;
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    private static class CachedCount {
+
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.springdatajpa.repository.support;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+
+public class EntityMetamodels { // 엔티티 타입으로 JPQL 을 만들 때 필요한 이름들 (ChunkedBulkOperations, PartitionedScanner)
+
+    private EntityMetamodels() {
+    }
+
+    public static String entityName(EntityManager em, Class<?> entityType) {
+        return em.getMetamodel().entity(entityType).getName();
+    }
+
+    // id 범위로 나누는 쪽에서 쓰므로 Long id 만 받는다
+    public static String idName(EntityManager em, Class<?> entityType) {
+        EntityType<?> type = em.getMetamodel().entity(entityType);
+        if (type.getIdType().getJavaType() != Long.class) {
+            throw new IllegalArgumentException(entityType.getSimpleName() + " must have a Long id");
+        }
+        return type.getId(Long.class).getName();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+
+public class EntityStreams {
+
+    private EntityStreams() {
+    }
+
+    // 이미 처리된 엔티티를 batchSize 개마다 영속성 컨텍스트에서 분리(detach)한다.
+    // 순차 스트림은 다음 원소를 꺼낼 때 이전 원소의 처리가 끝나 있으므로 힙 사용량이 테이블 크기와 무관하게 일정하다.
+    // (sorted 처럼 원소를 모아두는 중간 연산을 뒤에 붙이면 안 된다)
+    public static <T> Stream<T> detachEvery(EntityManager em, Stream<T> stream, int batchSize) {
+        List<T> processed = new ArrayList<>(batchSize);
+        return stream.map(entity -> {
+            if (processed.size() >= batchSize) {
+                processed.forEach(em::detach);
+                processed.clear();
+            }
+            processed.add(entity);
+            return entity;
+        });
+    }
+}
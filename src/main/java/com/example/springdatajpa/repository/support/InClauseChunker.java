@@ -0,0 +1,97 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 큰 컬렉션을 in (:values) 에 그대로 넣으면 크기마다 다른 SQL 이 생기고, DB 의 파라미터 개수 제한을 넘을 수 있다.
+// chunkSize 보다 크면 chunkSize 개씩 나누고 마지막 청크는 마지막 값을 반복해서 채운다 -> 항상 같은 SQL 하나만 쓴다
+// (chunkSize 이하는 한번에 실행하고 hibernate.query.in_clause_parameter_padding 이 2의 거듭제곱으로 채운다)
+@Component
+public class InClauseChunker {
+
+    private final int chunkSize;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public InClauseChunker(@Value("${datajpa.in-clause.chunk-size:512}") int chunkSize,
+        @Qualifier("repositoryExecutor") Executor executor, PlatformTransactionManager transactionManager) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // query 는 청크 하나(List)를 in 절에 바인딩해서 실행한다. 값이 겹치지 않게 나누므로 결과를 그냥 이어붙인다
+    // 트랜잭션 안에서 PARALLEL 을 호출하면 SEQUENTIAL 로 실행한다. 호출한 스레드가 커넥션을 든 채로 청크를 기다리면
+    // 풀 크기만큼 동시에 호출됐을 때 청크가 쓸 커넥션이 남지 않는다 (CallerRunsPolicy 로 호출한 스레드에서 돈 청크만 영속 상태가 되기도 한다)
+    public <V, R> List<R> query(Collection<V> values, ChunkExecution execution, Function<List<V>, List<R>> query) {
+        List<List<V>> chunks = chunk(values);
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (chunks.size() == 1 || execution == ChunkExecution.SEQUENTIAL
+            || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return readOnlyTransaction.execute(status -> { // 호출한 트랜잭션이 있으면 참여하고, 없으면 하나만 연다
+                List<R> results = new ArrayList<>();
+                chunks.forEach(chunk -> results.addAll(query.apply(chunk)));
+                return results;
+            });
+        }
+
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(chunks.size());
+        for (List<V> chunk : chunks) {
+            // EntityManager 는 스레드마다 달라야 하므로 청크마다 트랜잭션을 새로 연다
+            futures.add(CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.apply(chunk)),
+                executor));
+        }
+        List<R> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<R>> future : futures) {
+                results.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    <V> List<List<V>> chunk(Collection<V> values) {
+        List<V> distinct = new ArrayList<>(new LinkedHashSet<>(values)); // 중복 값이 다른 청크로 가면 같은 row 가 두번 나온다
+        List<List<V>> chunks = new ArrayList<>();
+        if (distinct.size() <= chunkSize) {
+            if (!distinct.isEmpty()) {
+                chunks.add(distinct);
+            }
+            return chunks;
+        }
+
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<V> chunk = new ArrayList<>(distinct.subList(from, Math.min(distinct.size(), from + chunkSize)));
+            V last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < chunkSize) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.springdatajpa.repository.support;
+
+// @Lock 메서드에 @QueryHints 로 붙이는 비관적 락 대기 옵션 (애너테이션 값이라 상수여야 한다)
+// 하이버네이트가 DB 방언에 맞게 바꾼다. ex) PostgreSQL: for update nowait / for update skip locked
+// 방언이 지원하지 않으면 그냥 for update 가 된다 (H2 1.4 는 NOWAIT, SKIP LOCKED 모두 없고 세션의 LOCK_TIMEOUT 을 쓴다)
+// 실제 DB 에서는 ./gradlew lockingTest 로 확인한다 (Testcontainers)
+public final class LockHints {
+
+    public static final String TIMEOUT = "javax.persistence.lock.timeout"; // 밀리초
+
+    public static final String NO_WAIT = "0";       // 잠겨 있으면 바로 실패 (LockOptions.NO_WAIT)
+    public static final String SKIP_LOCKED = "-2";  // 잠긴 row 는 건너뛴다 (LockOptions.SKIP_LOCKED)
+    public static final String DEFAULT_TIMEOUT = "3000";
+
+    private LockHints() {
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.springdatajpa.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// userName -> 회원 id 목록 (MemberRepository.findByUserName 등). 회원 자체는 id 로 2차 캐시에서 꺼낸다
+// 쿼리 캐시는 member 테이블이 바뀔 때마다 통째로 무효화되지만, 여기는 MemberIdCacheListener 가 userName 이 걸린 키만 지운다
+// - 나이 변경처럼 userName 과 상관없는 쓰기는 캐시를 건드리지 않는다
+// - JPQL 벌크 삭제는 이벤트가 없다. 지워진 id 는 꺼낼 때 없으면 그 키를 지운다 (MemberRepositoryImpl)
+@Component
+public class MemberIdCache {
+
+    private final long ttlMillis;
+    private final Map<String, CachedIds> ids;
+    private long evictions; // 조회하는 동안 다른 트랜잭션이 키를 지웠으면 읽은 목록이 이미 틀렸을 수 있다
+    private final Counter hits;
+    private final Counter misses;
+
+    public MemberIdCache(MeterRegistry meterRegistry,
+        @Value("${datajpa.member-id-cache.ttl-millis:600000}") long ttlMillis,
+        @Value("${datajpa.member-id-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.ids = new LinkedHashMap<String, CachedIds>(16, 0.75f, true) { // 가득 차면 오래 안 쓴 userName 부터 버린다
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedIds> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = meterRegistry.counter("datajpa.member-id-cache", "result", "hit");
+        this.misses = meterRegistry.counter("datajpa.member-id-cache", "result", "miss");
+    }
+
+    public synchronized List<Long> get(String userName) {
+        CachedIds cached = ids.get(userName);
+        if (cached == null || cached.expiresAt <= System.currentTimeMillis()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.memberIds;
+    }
+
+    // DB 에서 id 를 읽기 전에 받아두고 put 에 넘긴다
+    public synchronized long generation() {
+        return evictions;
+    }
+
+    // 이번 트랜잭션에서 회원을 저장/삭제/이름 변경했다면 넣지 않는다 (롤백되면 틀린 목록이 남는다)
+    public synchronized void put(String userName, List<Long> memberIds, long generation) {
+        if (userName == null || generation != evictions || writtenInCurrentTransaction()) {
+            return;
+        }
+        ids.put(userName, new CachedIds(memberIds, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void evict(String userName) {
+        if (userName != null) {
+            ids.remove(userName);
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        ids.clear();
+        evictions++;
+    }
+
+    // 현재 트랜잭션이 userName 조회 결과를 바꿨다고 표시한다 (트랜잭션이 끝나면 풀린다)
+    public void markWritten() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+            || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MemberIdCache.this);
+            }
+        });
+    }
+
+    private boolean writtenInCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    private static class CachedIds {
+
+        private final List<Long> memberIds;
+        private final long expiresAt;
+
+        private CachedIds(List<Long> memberIds, long expiresAt) {
+            this.memberIds = memberIds;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.springdatajpa.repository.support;
+
+import com.example.springdatajpa.entity.Member;
+import java.util.Objects;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+// 회원 저장/삭제/userName 변경 시 MemberIdCache 에서 그 userName 키만 지운다 (HibernateListenerConfig 에서 등록)
+// flush 할 때 한 번 (이번 트랜잭션의 조회 결과를 캐시하지 않게 표시), 커밋 후에 한 번 더 지운다
+// (flush 와 커밋 사이에 다른 트랜잭션이 커밋 전 목록을 다시 넣었을 수 있다)
+public class MemberIdCacheListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener {
+
+    private final MemberIdCache memberIdCache;
+    private final boolean afterCommit;
+
+    public MemberIdCacheListener(MemberIdCache memberIdCache, boolean afterCommit) {
+        this.memberIdCache = memberIdCache;
+        this.afterCommit = afterCommit;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(userName(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) { // select 없이 update 한 준영속 엔티티: 이전 userName 을 알 수 없다
+            memberIdCache.invalidateAll();
+            markWritten();
+            return;
+        }
+        String oldUserName = userName(event.getPersister(), oldState);
+        String newUserName = userName(event.getPersister(), event.getState());
+        if (!Objects.equals(oldUserName, newUserName)) {
+            evict(oldUserName);
+            evict(newUserName);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(userName(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return afterCommit && Member.class.equals(persister.getMappedClass());
+    }
+
+    private void evict(String userName) {
+        memberIdCache.evict(userName);
+        markWritten();
+    }
+
+    private void markWritten() {
+        if (!afterCommit) {
+            memberIdCache.markWritten();
+        }
+    }
+
+    private static String userName(EntityPersister persister, Object[] state) {
+        return (String) state[persister.getEntityMetamodel().getPropertyIndex("userName")];
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.springdatajpa.repository.support;
+
+import com.example.springdatajpa.entity.ScanCheckpoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 배치 작업용 전체 테이블 스캔. 한 트랜잭션에서 findAll() 하는 대신 id 범위를 chunkCount 개로 나눠서 여러 스레드가 동시에 읽는다 (엔티티 별칭은 e)
+// - 청크마다 readOnly 트랜잭션을 따로 열고, 그 안에서 pageSize 개씩 keyset(id > :lastId) 으로 읽는다. 페이지마다 영속성 컨텍스트를 비운다
+// - 동시에 읽는 청크는 parallelism 개까지. 다 차 있으면 제출하는 스레드가 기다린다 (repositoryExecutor 큐에 청크가 쌓이지 않는다)
+// - 끝난 청크는 scan_checkpoint 에 기록한다. 실패하면 같은 jobName 으로 다시 실행해서 끝나지 않은 청크만 읽는다
+// - id 범위는 처음 실행할 때 정한다. 그 뒤에 추가된(더 큰 id) row 는 읽지 않는다
+@Slf4j
+@Component
+public class PartitionedScanner {
+
+    private final EntityManager em;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate checkpointTransaction;
+    private final int parallelism;
+    private final int pageSize;
+
+    public PartitionedScanner(EntityManager em, @Qualifier("repositoryExecutor") Executor executor,
+        PlatformTransactionManager transactionManager,
+        // repositoryExecutor 스레드(= 커넥션 풀 크기)보다 작게 잡아서 온라인 요청이 쓸 커넥션을 남긴다
+        @Value("${datajpa.scan.parallelism:4}") int parallelism,
+        @Value("${datajpa.scan.page-size:500}") int pageSize) {
+        if (parallelism < 1 || pageSize < 1) {
+            throw new IllegalArgumentException("parallelism and pageSize must be positive");
+        }
+        this.em = em;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.pageSize = pageSize;
+        // 호출한 쪽 트랜잭션에 참여하면 청크가 끝나도 체크포인트가 커밋되지 않는다
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.checkpointTransaction = new TransactionTemplate(transactionManager);
+        this.checkpointTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> ScanResult scan(Class<T> entityType, String jobName, int chunkCount, ScanProcessor<T> processor) {
+        if (chunkCount < 1) {
+            throw new IllegalArgumentException("chunkCount must be positive");
+        }
+        String idName = EntityMetamodels.idName(em, entityType);
+        String query = "select e from " + EntityMetamodels.entityName(em, entityType) + " e where e." + idName
+            + " > :lastId and e." + idName + " <= :toId order by e." + idName;
+        List<ScanCheckpoint> checkpoints = checkpointTransaction.execute(
+            status -> checkpoints(entityType, jobName, chunkCount));
+
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        int skipped = 0;
+        for (ScanCheckpoint checkpoint : checkpoints) {
+            if (checkpoint.isCompleted()) {
+                skipped++;
+                continue;
+            }
+            permits.acquireUninterruptibly(); // back-pressure: 앞선 청크가 끝나야 다음 청크를 넣는다
+            if (failed.get()) { // 실패한 뒤로는 새 청크를 시작하지 않는다 (이미 돌고 있는 청크는 끝까지 읽고 기록한다)
+                permits.release();
+                break;
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> scanChunk(entityType, query, checkpoint, processor), executor)
+                .whenComplete((rows, e) -> {
+                    if (e != null) {
+                        failed.set(true);
+                    }
+                    permits.release();
+                }));
+        }
+
+        long rows = 0;
+        RuntimeException failure = null;
+        for (CompletableFuture<Long> future : futures) { // 실패해도 나머지 청크가 끝날 때까지 기다린다
+            try {
+                rows += future.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            log.warn("scan {} failed after {} rows, rerun with the same job name to resume", jobName, rows);
+            throw failure;
+        }
+
+        checkpointTransaction.executeWithoutResult(status -> em.createQuery(
+                "delete from ScanCheckpoint c where c.jobName = :jobName")
+            .setParameter("jobName", jobName)
+            .executeUpdate());
+        log.info("scan {} finished: {} chunks ({} skipped), {} rows", jobName, checkpoints.size(), skipped, rows);
+        return new ScanResult(jobName, checkpoints.size(), skipped, rows);
+    }
+
+    // 이전 실행의 체크포인트가 있으면 그대로 쓰고, 없으면 지금의 min/max id 를 chunkCount 개의 같은 폭으로 나눈다
+    private List<ScanCheckpoint> checkpoints(Class<?> entityType, String jobName, int chunkCount) {
+        List<ScanCheckpoint> existing = em.createQuery(
+                "select c from ScanCheckpoint c where c.jobName = :jobName order by c.chunkNo", ScanCheckpoint.class)
+            .setParameter("jobName", jobName)
+            .getResultList();
+        if (!existing.isEmpty()) {
+            log.info("resuming scan {}: {}/{} chunks done", jobName,
+                existing.stream().filter(ScanCheckpoint::isCompleted).count(), existing.size());
+            return existing;
+        }
+
+        String idName = EntityMetamodels.idName(em, entityType);
+        Object[] range = em.createQuery("select min(e." + idName + "), max(e." + idName + ") from "
+            + EntityMetamodels.entityName(em, entityType) + " e", Object[].class).getSingleResult();
+        List<ScanCheckpoint> checkpoints = new ArrayList<>();
+        if (range[0] == null) {
+            return checkpoints;
+        }
+        long min = (Long) range[0];
+        long max = (Long) range[1];
+        long width = (max - min) / chunkCount + 1;
+        for (long afterId = min - 1; afterId < max; afterId += width) {
+            ScanCheckpoint checkpoint = new ScanCheckpoint(jobName, checkpoints.size(), afterId,
+                Math.min(afterId + width, max));
+            em.persist(checkpoint);
+            checkpoints.add(checkpoint);
+        }
+        return checkpoints;
+    }
+
+    private <T> long scanChunk(Class<T> entityType, String query, ScanCheckpoint checkpoint,
+        ScanProcessor<T> processor) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            Long lastId = checkpoint.getAfterId();
+            while (true) {
+                List<T> page = em.createQuery(query, entityType)
+                    .setParameter("lastId", lastId)
+                    .setParameter("toId", checkpoint.getToId())
+                    .setHint(QueryHints.HINT_READONLY, true)
+                    .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE) // 전체 스캔으로 2차 캐시를 채우지(밀어내지) 않는다
+                    .setMaxResults(pageSize)
+                    .getResultList();
+                if (page.isEmpty()) {
+                    break;
+                }
+                processor.process(page);
+                count += page.size();
+                lastId = (Long) em.getEntityManagerFactory().getPersistenceUnitUtil()
+                    .getIdentifier(page.get(page.size() - 1));
+                em.clear(); // 메모리를 청크 크기가 아니라 페이지 크기로 묶는다
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            return count;
+        });
+
+        checkpointTransaction.executeWithoutResult(status ->
+            em.find(ScanCheckpoint.class, checkpoint.getId()).complete(rows));
+        log.debug("scan {} chunk {} ({}, {}]: {} rows", checkpoint.getJobName(), checkpoint.getChunkNo(),
+            checkpoint.getAfterId(), checkpoint.getToId(), rows);
+        return rows;
+    }
+}
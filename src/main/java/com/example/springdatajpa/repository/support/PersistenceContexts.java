@@ -0,0 +1,55 @@
+package com.example.springdatajpa.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+
+public class PersistenceContexts { // 벌크 연산 후 영속성 컨텍스트 전체를 clear 하지 않고 영향받은 엔티티만 찾아서 맞춘다
+
+    private PersistenceContexts() {
+    }
+
+    // 영속성 컨텍스트에 이미 올라와 있는 엔티티 중 조건에 맞는 것 (DB 조회 없음)
+    public static <T> List<T> managedEntities(EntityManager em, Class<T> type, Predicate<? super T> filter) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<T> entities = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            if (type.isInstance(entity) && entry.getValue().getStatus() == Status.MANAGED
+                && filter.test(type.cast(entity))) {
+                entities.add(type.cast(entity));
+            }
+        }
+        return entities;
+    }
+
+    // id 로 영속성 컨텍스트만 찾아본다. em.find 와 달리 없으면 DB 에서 가져오지 않는다
+    public static <T> List<T> managedEntities(EntityManager em, Class<T> type, Collection<?> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(type);
+        List<T> entities = new ArrayList<>();
+        for (Object id : ids) {
+            Object entity = session.getPersistenceContext().getEntity(session.generateEntityKey((Serializable) id, persister));
+            if (entity != null) {
+                entities.add(type.cast(entity));
+            }
+        }
+        return entities;
+    }
+
+    public static void refresh(EntityManager em, Collection<?> entities) {
+        entities.forEach(em::refresh);
+    }
+
+    public static void evict(EntityManager em, Collection<?> entities) {
+        entities.forEach(em::detach);
+    }
+}
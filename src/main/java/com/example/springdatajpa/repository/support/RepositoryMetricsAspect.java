@@ -0,0 +1,139 @@
+package com.example.springdatajpa.repository.support;
+
+import com.example.springdatajpa.sql.EntityLoadCounter;
+import com.example.springdatajpa.sql.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+// 리포지토리 메서드마다 지연시간(히스토그램), 반환 row 수, 실행한 SQL 수, 로딩한 엔티티 수를 기록한다
+// - Spring Data 리포지토리(MemberRepository, TeamRepository, ItemRepository)와 @Repository 클래스(MemberJpaRepository 등)
+// - SQL/엔티티 수는 같은 스레드의 전후 차이다. 비동기(Future) 메서드는 다른 스레드에서 실행되므로 지연시간만 남는다
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // 가장 바깥에서 재야 트랜잭션 커밋(flush)까지 포함된다
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    // 리포지토리 클래스 -> 메서드 -> 미터. 호출마다 Tags/builder 를 만들지 않고 처음 한번만 등록한다
+    // (CrudRepository.save 처럼 같은 Method 를 여러 리포지토리가 공유하므로 클래스로 먼저 나눈다)
+    private final Map<Class<?>, Map<Method, MethodMeters>> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * *(..)) && (this(org.springframework.data.repository.Repository) "
+        + "|| @within(org.springframework.stereotype.Repository))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        long statements = QueryCounter.statementCount();
+        long entities = EntityLoadCounter.loadedCount();
+        long start = System.nanoTime();
+        String outcome = "success";
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            MethodMeters methodMeters = meters(joinPoint);
+            methodMeters.invocations(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            if (!(result instanceof Future)) {
+                methodMeters.statements.record(QueryCounter.statementCount() - statements);
+                methodMeters.entities.record(EntityLoadCounter.loadedCount() - entities);
+                long rows = rows(result);
+                if (rows >= 0) {
+                    methodMeters.rows.record(rows);
+                }
+            }
+        }
+    }
+
+    private MethodMeters meters(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return meters.computeIfAbsent(target.getClass(), type -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, m -> new MethodMeters(
+                Tags.of("repository", repositoryName(target), "method", m.getName())));
+    }
+
+    // 반환된 row 수. 셀 수 없으면(스트림, void, 숫자 등) -1
+    private static long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) { // Page 포함. count 가 아니라 가져온 컨텐츠 수
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result == null || result instanceof BaseStream || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1; // 단건 엔티티, DTO
+    }
+
+    // Spring Data 리포지토리는 JDK 프록시라 클래스 이름 대신 우리가 선언한 리포지토리 인터페이스 이름을 쓴다
+    private String repositoryName(Object target) {
+        return repositoryNames.computeIfAbsent(target.getClass(), type -> {
+            for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (org.springframework.data.repository.Repository.class.isAssignableFrom(candidate)
+                    && !candidate.getName().startsWith("org.springframework.")) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return AopUtils.getTargetClass(target).getSimpleName();
+        });
+    }
+
+    private class MethodMeters {
+
+        private final Tags tags;
+        private final Map<String, Timer> invocations = new ConcurrentHashMap<>(); // outcome -> timer
+        private final DistributionSummary statements;
+        private final DistributionSummary entities;
+        private final DistributionSummary rows;
+
+        private MethodMeters(Tags tags) {
+            this.tags = tags;
+            this.statements = summary("datajpa.repository.statements");
+            this.entities = summary("datajpa.repository.entities.loaded");
+            this.rows = summary("datajpa.repository.rows");
+        }
+
+        private Timer invocations(String outcome) {
+            return invocations.computeIfAbsent(outcome, o -> Timer.builder("datajpa.repository.invocations")
+                .tags(tags).tag("outcome", o)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+
+        private DistributionSummary summary(String name) {
+            return DistributionSummary.builder(name).tags(tags).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.OptionalLong;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+public class RowCountEstimator { // 테이블 전체 row 수를 DB 통계에서 읽어온다 (count(*) 풀스캔 대신)
+
+    // H2 기준. PostgreSQL 이라면 pg_class.reltuples, MySQL 이라면 information_schema.tables.table_rows 를 사용한다.
+    private static final String H2_ESTIMATE_QUERY =
+        "select row_count_estimate from information_schema.tables where table_name = upper(?1)";
+
+    private RowCountEstimator() {
+    }
+
+    public static OptionalLong estimate(EntityManager em, String tableName) {
+        try {
+            Object result = em.createNativeQuery(H2_ESTIMATE_QUERY)
+                .setParameter(1, tableName)
+                .getSingleResult();
+            return result == null ? OptionalLong.empty() : OptionalLong.of(((Number) result).longValue());
+        } catch (PersistenceException e) { // 통계를 지원하지 않는 DB면 정확한 count 로 대신한다
+            return OptionalLong.empty();
+        }
+    }
+}
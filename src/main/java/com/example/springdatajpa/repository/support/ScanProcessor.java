@@ -0,0 +1,11 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ScanProcessor<T> {
+
+    // 청크의 readOnly 트랜잭션 안에서, 여러 스레드에서 동시에 호출된다 (page 는 id 순서, 처리 후 영속성 컨텍스트에서 지운다)
+    // 예외를 던지면 그 청크는 완료로 기록되지 않는다
+    void process(List<T> page);
+}
@@ -0,0 +1,21 @@
+package com.example.springdatajpa.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class ScanResult {
+
+    private final String jobName;
+    private final int chunks;        // 전체 청크 수
+    private final int skippedChunks; // 이전 실행에서 이미 끝나서 건너뛴 청크 수
+    private final long rows;         // 이번 실행에서 읽은 row 수
+
+    public ScanResult(String jobName, int chunks, int skippedChunks, long rows) {
+        this.jobName = jobName;
+        this.chunks = chunks;
+        this.skippedChunks = skippedChunks;
+        this.rows = rows;
+    }
+}
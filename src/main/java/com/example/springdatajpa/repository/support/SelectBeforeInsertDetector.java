@@ -0,0 +1,86 @@
+package com.example.springdatajpa.repository.support;
+
+import com.example.springdatajpa.sql.QueryCountContext;
+import com.example.springdatajpa.sql.QueryCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.data.util.ProxyUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// save() 가 새 엔티티를 merge 해서 insert 전에 select 를 한번 더 한 경우를 찾는다. (Persistable.isNew 구현 실수, 직접 넣는 id 등)
+// 메트릭은 항상 올리고, 경고 로그는 엔티티 타입마다 처음 한번만 남긴다
+@Slf4j
+@Aspect
+@Component
+public class SelectBeforeInsertDetector {
+
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, JpaEntityInformation<Object, ?>> entityInformation = new ConcurrentHashMap<>();
+    private final Set<Class<?>> warned = ConcurrentHashMap.newKeySet();
+
+    public SelectBeforeInsertDetector(EntityManager em, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* org.springframework.data.repository.CrudRepository+.save(..)) && args(entity)")
+    public Object detect(ProceedingJoinPoint joinPoint, Object entity) throws Throwable {
+        if (entity == null) {
+            return joinPoint.proceed();
+        }
+        Class<?> type = ProxyUtils.getUserClass(entity);
+        if (!isEntity(type) || entityInformation(type).isNew(entity)) {
+            return joinPoint.proceed(); // persist 로 가는 경우
+        }
+
+        QueryCountContext context = QueryCounter.start();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            QueryCounter.stop();
+        }
+
+        // 트랜잭션 밖에서 호출하면 insert 까지 끝나 있고, 안에서 호출하면 flush 전이라 insert 예정 상태다
+        if (context.getSelects() > 0 && (context.getInserts() > 0 || scheduledForInsert(result))) {
+            meterRegistry.counter("datajpa.save.select-before-insert", "entity", type.getSimpleName()).increment();
+            if (warned.add(type)) {
+                log.warn("save() merged a new {} (select before insert). Check Persistable.isNew() or use insert()/persistAll()",
+                    type.getSimpleName());
+            }
+        }
+        return result;
+    }
+
+    private boolean scheduledForInsert(Object result) {
+        if (result == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        EntityEntry entry = em.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(result);
+        return entry != null && !entry.isExistsInDatabase();
+    }
+
+    private boolean isEntity(Class<?> type) {
+        return entityInformation.containsKey(type)
+            || em.getMetamodel().getEntities().stream().anyMatch(entity -> entity.getJavaType() == type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JpaEntityInformation<Object, ?> entityInformation(Class<?> type) {
+        return entityInformation.computeIfAbsent(type,
+            t -> (JpaEntityInformation<Object, ?>) JpaEntityInformationSupport.getEntityInformation(t, em));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springdatajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+// 조건의 모양(shape)과 값(parameters)을 분리한 Specification.
+// 모양이 같으면 렌더링된 JPQL 을 재사용하고 값만 바인딩한다 (SpecificationQueryCache)
+// 일반 Specification 처럼 findAll(Specification) 에 넘겨도 된다 (그때는 값을 바로 넣어서 만든다)
+public class ShapedSpecification<T> implements Specification<T> {
+
+    private final String shape;
+    private final Map<String, Object> parameters;
+    private final Definition<T> definition;
+    private final List<Class<?>> definitionTypes; // 조건을 만든 람다 클래스들 (호출 위치마다 다르다)
+
+    private ShapedSpecification(String shape, Map<String, Object> parameters, Definition<T> definition,
+        List<Class<?>> definitionTypes) {
+        this.shape = shape;
+        this.parameters = Collections.unmodifiableMap(parameters);
+        this.definition = definition;
+        this.definitionTypes = Collections.unmodifiableList(definitionTypes);
+    }
+
+    // 값은 반드시 args.get(name, type) 으로 꺼내 써야 캐시된 JPQL 에 파라미터로 남는다
+    public static <T> ShapedSpecification<T> of(String shape, String parameterName, Object value,
+        Definition<T> definition) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put(parameterName, value);
+        return new ShapedSpecification<>(shape, parameters, definition,
+            Collections.singletonList(definition.getClass()));
+    }
+
+    public static <T> ShapedSpecification<T> empty() { // 조건 없음 (기존 spec 의 null 반환과 같다)
+        return new ShapedSpecification<>("", Collections.emptyMap(), null, Collections.emptyList());
+    }
+
+    public ShapedSpecification<T> and(ShapedSpecification<T> other) {
+        if (definition == null) {
+            return other;
+        }
+        if (other.definition == null) {
+            return this;
+        }
+
+        Map<String, Object> merged = new LinkedHashMap<>(parameters);
+        other.parameters.forEach((name, value) -> {
+            if (merged.containsKey(name) && !Objects.equals(merged.get(name), value)) {
+                throw new IllegalArgumentException("parameter '" + name + "' is bound to different values");
+            }
+            merged.put(name, value);
+        });
+        List<Class<?>> types = new ArrayList<>(definitionTypes);
+        types.addAll(other.definitionTypes);
+        return new ShapedSpecification<>("(" + shape + ") and (" + other.shape + ")", merged,
+            (root, query, cb, args) -> cb.and(
+                definition.toPredicate(root, query, cb, args),
+                other.definition.toPredicate(root, query, cb, args)), types);
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        if (definition == null) {
+            return null;
+        }
+        return definition.toPredicate(root, query, criteriaBuilder, new Arguments() {
+            @Override
+            public <V> Expression<V> get(String name, Class<V> type) {
+                V value = type.cast(parameters.get(name));
+                // literal(null) 은 예외. 파라미터 경로(:name 에 null 바인딩)와 같게 = null 로 남긴다 (일치하는 row 없음)
+                return value == null ? criteriaBuilder.nullLiteral(type) : criteriaBuilder.literal(value);
+            }
+        });
+    }
+
+    // 값 대신 이름 있는 파라미터(:name)로 만든다
+    Predicate toParameterizedPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        if (definition == null) {
+            return null;
+        }
+        return definition.toPredicate(root, query, criteriaBuilder, new Arguments() {
+            @Override
+            public <V> Expression<V> get(String name, Class<V> type) {
+                return criteriaBuilder.parameter(type, name);
+            }
+        });
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    List<Class<?>> getDefinitionTypes() {
+        return definitionTypes;
+    }
+
+    @FunctionalInterface
+    public interface Definition<T> {
+
+        Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder, Arguments args);
+    }
+
+    public interface Arguments {
+
+        <V> Expression<V> get(String name, Class<V> type);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.springdatajpa.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// findAll(Specification) 은 호출마다 Criteria 트리를 만들고 JPQL 로 렌더링한다.
+// 조건의 모양(엔티티 + shape + 조건을 만든 람다 클래스)별로 렌더링된 JPQL 을 들고 있다가 값만 바인딩해서 실행한다.
+// shape 는 호출하는 쪽이 붙인 이름이라 겹칠 수 있다. 람다 클래스까지 키에 넣고, 키를 처음 재사용할 때 다시 렌더링해서 비교한다
+// (JPQL -> SQL 번역은 같은 JPQL 문자열이면 하이버네이트 query plan cache 가 재사용한다)
+@Component
+public class SpecificationQueryCache {
+
+    private final EntityManager em;
+    private final int maxEntries;
+    private final Map<List<Object>, CachedQuery> queries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter uncacheable;
+    private final Timer translation;
+
+    public SpecificationQueryCache(EntityManager em, MeterRegistry meterRegistry,
+        @Value("${datajpa.spec.plan-cache.max-entries:500}") int maxEntries) {
+        this.em = em;
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("datajpa.spec.plan-cache", "result", "hit");
+        this.misses = meterRegistry.counter("datajpa.spec.plan-cache", "result", "miss");
+        this.uncacheable = meterRegistry.counter("datajpa.spec.plan-cache", "result", "uncacheable");
+        this.translation = Timer.builder("datajpa.spec.translation")
+            .description("Criteria -> JPQL rendering time on a plan-cache miss")
+            .register(meterRegistry);
+    }
+
+    public <T> List<T> findAll(Class<T> entityType, ShapedSpecification<T> spec) {
+        List<Object> key = Arrays.asList(entityType, spec.getShape(), spec.getDefinitionTypes());
+        CachedQuery cached = queries.get(key);
+        if (cached != null && cached.jpql != null && cached.verified) {
+            hits.increment();
+            return bind(em.createQuery(cached.jpql, entityType), spec.getParameters()).getResultList();
+        }
+
+        // 처음 보는 모양이면 한번 렌더링하고, 그 쿼리로 그대로 실행한다
+        misses.increment();
+        long start = System.nanoTime();
+        TypedQuery<T> query = createCriteriaQuery(entityType, spec);
+        String rendered = render(query, spec);
+        translation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (rendered == null) { // 파라미터로 바꿀 수 없는 값이 들어간 모양은 캐시하지 않는다
+            uncacheable.increment();
+        }
+        if (cached != null) { // 두번째 사용: 같은 키가 다른 조건을 만들면 (람다가 캡처한 값으로 분기 등) 틀린 결과 대신 예외
+            if (!Objects.equals(cached.jpql, rendered)) {
+                throw new IllegalStateException("specification shape '" + spec.getShape() + "' of "
+                    + entityType.getSimpleName() + " renders different queries: [" + cached.jpql + "] and [" + rendered
+                    + "]. Give each distinct condition its own shape");
+            }
+            cached.verified = true;
+        } else {
+            if (queries.size() >= maxEntries) {
+                queries.clear(); // 모양은 코드가 정하므로 보통 가득 찰 일이 없다
+            }
+            queries.put(key, new CachedQuery(rendered)); // jpql 이 null = 캐시할 수 없는 모양
+        }
+        return bind(query, spec.getParameters()).getResultList();
+    }
+
+    private <T> TypedQuery<T> createCriteriaQuery(Class<T> entityType, ShapedSpecification<T> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> criteria = cb.createQuery(entityType);
+        Root<T> root = criteria.from(entityType);
+        Predicate predicate = spec.toParameterizedPredicate(root, criteria, cb);
+        if (predicate != null) {
+            criteria.where(predicate);
+        }
+        return em.createQuery(criteria);
+    }
+
+    // Criteria 를 하이버네이트가 렌더링한 JPQL. 이름 없는 파라미터(리터럴)가 섞여 있으면 재사용할 수 없다
+    private String render(TypedQuery<?> query, ShapedSpecification<?> spec) {
+        Set<String> names = query.getParameters().stream()
+            .map(Parameter::getName)
+            .collect(Collectors.toSet());
+        if (!spec.getParameters().keySet().containsAll(names)) {
+            return null;
+        }
+        return query.unwrap(org.hibernate.query.Query.class).getQueryString();
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, Map<String, Object> parameters) {
+        for (Parameter<?> parameter : query.getParameters()) {
+            String name = parameter.getName();
+            if (parameters.containsKey(name)) { // 리터럴이 바뀐 이름 없는 파라미터(param0...)는 이미 바인딩되어 있다
+                query.setParameter(name, parameters.get(name));
+            }
+        }
+        return query;
+    }
+
+    public void invalidateAll() {
+        queries.clear();
+    }
+
+    private static class CachedQuery {
+
+        private final String jpql;
+        private volatile boolean verified; // 한번 더 렌더링해서 같은 JPQL 인 걸 확인한 뒤부터 재사용한다
+
+        private CachedQuery(String jpql) {
+            this.jpql = jpql;
+        }
+    }
+}
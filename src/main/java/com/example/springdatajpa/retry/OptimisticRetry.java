@@ -0,0 +1,20 @@
+package com.example.springdatajpa.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 낙관적 락 충돌(@Version)이 나면 메서드를 처음부터 다시 실행한다. 트랜잭션 경계가 되는 메서드(@Transactional 과 같이)에 붙인다
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OptimisticRetry {
+
+    int maxAttempts() default 3; // 첫 실행 포함
+
+    long backoffMillis() default 20; // 재시도마다 두배씩 늘어나고, 0 ~ 그 값 사이에서 랜덤하게 기다린다
+
+    long maxBackoffMillis() default 500;
+}
@@ -0,0 +1,96 @@
+package com.example.springdatajpa.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1) // 트랜잭션 어드바이스(LOWEST_PRECEDENCE)보다 바깥: 재시도마다 트랜잭션을 새로 시작한다
+public class OptimisticRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetryAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(com.example.springdatajpa.retry.OptimisticRetry) || @within(com.example.springdatajpa.retry.OptimisticRetry)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        OptimisticRetry retry = findAnnotation(signature, joinPoint.getTarget());
+        String method = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+
+        // 바깥 트랜잭션에 참여한 상태면 다시 실행해도 같은 (롤백될) 트랜잭션, 같은 영속성 컨텍스트다. 바깥에서 재시도해야 한다
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("datajpa.optimistic.conflicts", "method", method).increment();
+                if (attempt >= retry.maxAttempts()) {
+                    meterRegistry.counter("datajpa.optimistic.exhausted", "method", method).increment();
+                    log.warn("optimistic lock conflict on {}, giving up after {} attempts", method, attempt);
+                    throw e;
+                }
+
+                meterRegistry.counter("datajpa.optimistic.retries", "method", method).increment();
+                log.debug("optimistic lock conflict on {} (attempt {}), retrying", method, attempt);
+                if (!sleep(backoff(retry, attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // full jitter: 0 ~ min(max, base * 2^(attempt-1)) -> 동시에 충돌한 스레드들이 같은 시점에 다시 부딪히지 않는다
+    static long backoff(OptimisticRetry retry, int attempt) {
+        long ceiling = Math.min(retry.maxBackoffMillis(), retry.backoffMillis() << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static OptimisticRetry findAnnotation(MethodSignature signature, Object target) {
+        OptimisticRetry retry = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), OptimisticRetry.class);
+        if (retry == null) {
+            retry = AnnotatedElementUtils.findMergedAnnotation(target.getClass(), OptimisticRetry.class);
+        }
+        return retry;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springdatajpa.service;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.retry.OptimisticRetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    // 행 락(findLockByUserName) 없이 읽고, 커밋할 때 version 이 바뀌어 있으면 처음부터 다시 실행한다
+    @OptimisticRetry(maxAttempts = 10)
+    @Transactional
+    public int increaseAge(Long memberId) {
+        Member member = memberRepository.findById(memberId)
+            .orElseThrow(() -> new IllegalArgumentException("member not found: " + memberId));
+        member.setAge(member.getAge() + 1);
+        return member.getAge();
+    }
+
+    @OptimisticRetry
+    @Transactional
+    public void changeUserName(Long memberId, String userName) {
+        Member member = memberRepository.findById(memberId)
+            .orElseThrow(() -> new IllegalArgumentException("member not found: " + memberId));
+        member.setUserName(userName);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.springdatajpa.sql;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+@Getter
+public class ConnectionHolder {
+
+    private final Thread thread;
+    private final long acquiredAt = System.nanoTime();
+
+    ConnectionHolder(Thread thread) {
+        this.thread = thread;
+    }
+
+    public long getHeldMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acquiredAt);
+    }
+
+    public StackTraceElement[] currentStackTrace() { // 커넥션을 가져간 곳이 아니라 지금 실행 중인 곳 (가져간 곳은 hikari leak-detection-threshold)
+        return thread.getStackTrace();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.springdatajpa.sql;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+// 지금 커넥션을 들고 있는 스레드 목록 (풀이 고갈됐을 때 누가 잡고 있는지 보려고)
+// 가져갈 때는 스레드와 시각만 남기고, 스택은 리포트할 때 그 스레드의 현재 스택을 뜬다 (커넥션마다 스택을 만들지 않는다)
+@Component
+public class ConnectionHolderTracker extends JdbcEventListener {
+
+    private final Map<Integer, ConnectionHolder> holders = new ConcurrentHashMap<>();
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        if (e == null) {
+            holders.put(connectionInformation.getConnectionId(), new ConnectionHolder(Thread.currentThread()));
+        }
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        holders.remove(connectionInformation.getConnectionId()); // 풀에 반납
+    }
+
+    public List<ConnectionHolder> holders() { // 오래 들고 있는 순서
+        List<ConnectionHolder> result = new ArrayList<>(holders.values());
+        result.sort(Comparator.comparingLong(ConnectionHolder::getAcquiredAt));
+        return result;
+    }
+}
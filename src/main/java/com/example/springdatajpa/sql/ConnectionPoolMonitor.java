@@ -0,0 +1,69 @@
+package com.example.springdatajpa.sql;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// 커넥션을 기다리는 스레드가 있으면(풀 고갈) 메트릭을 올리고, 커넥션을 들고 있는 스레드들의 스택을 남긴다
+// 풀 상태는 hikari 가 등록한 hikaricp.connections.* 게이지에서 읽는다 (풀 이름 = pool 태그)
+@Slf4j
+@Component
+public class ConnectionPoolMonitor {
+
+    private static final int MAX_STACK_DEPTH = 30;
+
+    private final MeterRegistry meterRegistry;
+    private final ConnectionHolderTracker holderTracker;
+    private final long reportIntervalMillis;
+    private final Map<String, Long> lastReported = new ConcurrentHashMap<>();
+
+    public ConnectionPoolMonitor(MeterRegistry meterRegistry, ConnectionHolderTracker holderTracker,
+        @Value("${datajpa.datasource.pool.report-interval-millis:60000}") long reportIntervalMillis) {
+        this.meterRegistry = meterRegistry;
+        this.holderTracker = holderTracker;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${datajpa.datasource.pool.monitor-interval-millis:1000}")
+    public void check() {
+        for (Gauge pending : meterRegistry.find("hikaricp.connections.pending").gauges()) {
+            if (pending.value() < 1) {
+                continue;
+            }
+            String pool = pending.getId().getTag("pool");
+            meterRegistry.counter("datajpa.datasource.pool.saturated", "pool", pool).increment();
+
+            long now = System.currentTimeMillis();
+            Long last = lastReported.get(pool);
+            if (last == null || now - last >= reportIntervalMillis) { // 고갈이 이어지는 동안 스택을 매번 찍지 않는다
+                lastReported.put(pool, now);
+                log.warn("connection pool '{}' exhausted: {} threads waiting, {} active / {} max\n{}", pool,
+                    (long) pending.value(), (long) gauge("hikaricp.connections.active", pool),
+                    (long) gauge("hikaricp.connections.max", pool), holderReport());
+            }
+        }
+    }
+
+    private double gauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge == null ? Double.NaN : gauge.value();
+    }
+
+    private String holderReport() { // 모든 풀의 커넥션을 들고 있는 스레드 (오래 들고 있는 순서)
+        StringBuilder report = new StringBuilder();
+        for (ConnectionHolder holder : holderTracker.holders()) {
+            report.append("  held ").append(holder.getHeldMillis()).append(" ms by ")
+                .append(holder.getThread().getName()).append('\n');
+            StackTraceElement[] stackTrace = holder.currentStackTrace();
+            for (int i = 0; i < Math.min(stackTrace.length, MAX_STACK_DEPTH); i++) {
+                report.append("    at ").append(stackTrace[i]).append('\n');
+            }
+        }
+        return report.toString();
+    }
+}
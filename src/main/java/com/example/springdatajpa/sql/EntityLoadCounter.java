@@ -0,0 +1,19 @@
+package com.example.springdatajpa.sql;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+public class EntityLoadCounter implements PostLoadEventListener { // 현재 스레드에서 DB 결과로 만들어진(hydrate) 엔티티 수를 센다
+
+    private static final ThreadLocal<long[]> LOADED = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        LOADED.get()[0]++;
+    }
+
+    // 전후 차이로 구간에서 로딩된 엔티티 수를 알 수 있다 (QueryCounter.statementCount 와 같은 방식)
+    public static long loadedCount() {
+        return LOADED.get()[0];
+    }
+}
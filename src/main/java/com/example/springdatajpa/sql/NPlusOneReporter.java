@@ -0,0 +1,35 @@
+package com.example.springdatajpa.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class NPlusOneReporter { // 운영에서는 실패시키지 않고 메트릭 + 샘플링된 경고 로그만 남긴다
+
+    private final MeterRegistry meterRegistry;
+    private final int threshold;
+    private final double warnSampleRate;
+
+    public NPlusOneReporter(MeterRegistry meterRegistry,
+        @Value("${datajpa.n-plus-one.threshold:3}") int threshold,
+        @Value("${datajpa.n-plus-one.warn-sample-rate:0.1}") double warnSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.warnSampleRate = warnSampleRate;
+    }
+
+    public void report(QueryCountContext context) {
+        for (RepeatedSelect repeated : context.getRepeatedSelects(threshold)) {
+            meterRegistry.counter("datajpa.query.n-plus-one", "table", repeated.getTable()).increment();
+            if (ThreadLocalRandom.current().nextDouble() < warnSampleRate) {
+                log.warn("N+1 query suspected: {} x select on '{}' at {} (total statements {})\n{}",
+                    repeated.getCount(), repeated.getTable(), repeated.getCallSite(), context.getTotal(),
+                    repeated.getSql());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springdatajpa.sql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class QueryCountContext { // 한 범위 안에서 실행된 SQL 개수와 반복된 select 를 센다 (스레드 하나에서만 사용된다)
+
+    private static final Pattern FROM_TABLE = Pattern.compile("\\bfrom\\s+([\\w.]+)");
+    private static final String APPLICATION_PACKAGE = "com.example.springdatajpa.";
+    private static final String OWN_PACKAGE = QueryCountContext.class.getPackage().getName() + ".";
+
+    private int total;
+    private int selects;
+    private int inserts;
+    private final Map<String, Integer> selectCounts = new HashMap<>();
+    private final Map<String, RepeatedSelect> repeatedSelects = new HashMap<>();
+
+    void record(String sql) {
+        total++;
+        String normalized = sql.trim();
+        if (normalized.regionMatches(true, 0, "insert", 0, "insert".length())) {
+            inserts++;
+            return;
+        }
+        if (!normalized.regionMatches(true, 0, "select", 0, "select".length())) {
+            return;
+        }
+        selects++;
+
+        int count = selectCounts.merge(normalized, 1, Integer::sum);
+        if (count == 2) { // 같은 SQL 이 처음 반복될 때만 호출 위치를 찾는다 (stack trace 비용을 줄이기 위해)
+            RepeatedSelect repeated = new RepeatedSelect(normalized, tableOf(normalized), findCallSite());
+            repeated.increment();
+            repeatedSelects.put(normalized, repeated);
+        } else if (count > 2) {
+            repeatedSelects.get(normalized).increment();
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSelects() {
+        return selects;
+    }
+
+    public int getInserts() {
+        return inserts;
+    }
+
+    public Set<String> getSelectStatements() { // 실행한 select SQL (바인딩 값은 ?)
+        return new LinkedHashSet<>(selectCounts.keySet());
+    }
+
+    public List<RepeatedSelect> getRepeatedSelects(int threshold) {
+        List<RepeatedSelect> result = new ArrayList<>();
+        for (RepeatedSelect repeated : repeatedSelects.values()) {
+            if (repeated.getCount() >= threshold) {
+                result.add(repeated);
+            }
+        }
+        return result;
+    }
+
+    private static String tableOf(String sql) {
+        Matcher matcher = FROM_TABLE.matcher(sql.toLowerCase(Locale.ROOT));
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+
+    private static String findCallSite() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith(APPLICATION_PACKAGE)
+                && !className.startsWith(OWN_PACKAGE)
+                && !className.contains("$$")) { // 스프링 프록시는 건너뛴다
+                return element.toString();
+            }
+        }
+        return "unknown";
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springdatajpa.sql;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import java.sql.SQLException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class QueryCountListener extends JdbcEventListener { // p6spy 가 실행하는 모든 statement 를 QueryCounter 에 기록한다
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql != null) {
+            QueryCounter.record(sql);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.springdatajpa.sql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public final class QueryCounter { // 현재 스레드에서 실행된 SQL 을 범위(context) 단위로 센다
+
+    private static final ThreadLocal<Deque<QueryCountContext>> CONTEXTS = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private QueryCounter() {
+    }
+
+    public static QueryCountContext start() {
+        QueryCountContext context = new QueryCountContext();
+        CONTEXTS.get().push(context);
+        return context;
+    }
+
+    public static QueryCountContext stop() {
+        Deque<QueryCountContext> contexts = CONTEXTS.get();
+        QueryCountContext context = contexts.pop();
+        if (contexts.isEmpty()) {
+            CONTEXTS.remove();
+        }
+        return context;
+    }
+
+    public static QueryCountContext measure(Runnable block) {
+        QueryCountContext context = start();
+        try {
+            block.run();
+        } finally {
+            stop();
+        }
+        return context;
+    }
+
+    // 범위와 상관없이 이 스레드에서 지금까지 실행된 SQL 수 (전후 차이로 구간의 SQL 수를 알 수 있다)
+    public static long statementCount() {
+        return STATEMENTS.get()[0];
+    }
+
+    static void record(String sql) {
+        STATEMENTS.get()[0]++;
+        Deque<QueryCountContext> contexts = CONTEXTS.get();
+        if (contexts.isEmpty()) {
+            CONTEXTS.remove();
+            return;
+        }
+        for (QueryCountContext context : contexts) { // 중첩된 범위 모두에 기록한다
+            context.record(sql);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.springdatajpa.sql;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class RepeatedSelect { // 한 범위(요청/트랜잭션/테스트 블록) 안에서 같은 select 문이 반복된 기록 (N+1 의심)
+
+    private final String sql;
+    private final String table;
+    private final String callSite; // 두 번째 실행 시점에 처음 발견한 애플리케이션 코드 위치
+    private int count;
+
+    RepeatedSelect(String sql, String table, String callSite) {
+        this.sql = sql;
+        this.table = table;
+        this.callSite = callSite;
+        this.count = 1;
+    }
+
+    void increment() {
+        count++;
+    }
+}
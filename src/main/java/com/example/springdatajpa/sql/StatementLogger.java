@@ -0,0 +1,115 @@
+package com.example.springdatajpa.sql;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.jdbc.internal.FormatStyle;
+import org.hibernate.engine.jdbc.internal.Formatter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// org.hibernate.SQL / org.hibernate.type / p6spy 로그 대신 쓰는 SQL 로그 (운영 프로필)
+// - 임계값보다 느린 SQL 은 모두, 나머지는 sample-rate 비율만 남긴다
+// - 요청 스레드는 바인딩된 SQL 문자열만 만들어서 큐에 넣고, 포맷팅/로그 출력은 별도 스레드에서 한다
+// - 큐가 가득 차면 버린다 (로그 때문에 요청을 막지 않는다). 버린 수는 datajpa.statement-log.dropped
+@Slf4j
+@Component
+public class StatementLogger extends JdbcEventListener implements DisposableBean {
+
+    private static final Formatter FORMATTER = FormatStyle.BASIC.getFormatter();
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final BlockingQueue<LoggedStatement> queue;
+    private final Counter slow;
+    private final Counter written;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public StatementLogger(MeterRegistry meterRegistry,
+        @Value("${datajpa.slow-query.threshold-millis:200}") long thresholdMillis,
+        @Value("${datajpa.statement-log.sample-rate:0}") double sampleRate,
+        @Value("${datajpa.statement-log.queue-capacity:4096}") int queueCapacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.slow = meterRegistry.counter("datajpa.query.slow");
+        this.written = meterRegistry.counter("datajpa.statement-log.written");
+        this.dropped = meterRegistry.counter("datajpa.statement-log.dropped");
+        this.writer = new Thread(this::drain, "statement-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        boolean slowStatement = timeElapsedNanos >= thresholdNanos;
+        if (slowStatement) {
+            slow.increment();
+        } else if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        // 바인딩 값은 statement 가 재사용되기 전에 여기서 꺼내야 한다
+        LoggedStatement statement = new LoggedStatement(statementInformation.getSqlWithValues(), timeElapsedNanos,
+            slowStatement, e != null);
+        if (!queue.offer(statement)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                LoggedStatement statement = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (statement != null) {
+                    write(statement);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(LoggedStatement statement) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(statement.elapsedNanos);
+        String failed = statement.failed ? " (failed)" : "";
+        if (statement.slow) { // 느린 SQL 만 보기 좋게 줄바꿈한다
+            log.warn("slow query ({} ms){}:{}", millis, failed, FORMATTER.format(statement.sql));
+        } else {
+            log.info("{} ms{} | {}", millis, failed, statement.sql);
+        }
+        written.increment();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException { // 남은 로그를 비우고 끝낸다
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private static class LoggedStatement {
+
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final boolean failed;
+
+        private LoggedStatement(String sql, long elapsedNanos, boolean slow, boolean failed) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.failed = failed;
+        }
+    }
+}
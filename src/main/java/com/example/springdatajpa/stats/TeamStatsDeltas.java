@@ -0,0 +1,115 @@
+package com.example.springdatajpa.stats;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 한 트랜잭션 동안의 팀별 변화량(회원 수, 나이 합)을 모았다가 커밋 직전(flush 이후)에 팀마다 update 한번으로 반영한다
+// - 회원 1만 명을 저장해도 team_stats update 는 팀 수만큼만 나간다
+// - 롤백되면 반영하지 않는다 (beforeTransactionCompletion 이 호출되지 않는다)
+// - 통계 반영이 실패해도 회원 저장은 커밋한다 (통계는 읽기 모델이다. 어긋나면 TeamStatsRebuilder 로 다시 센다)
+@Slf4j
+public class TeamStatsDeltas implements BeforeTransactionCompletionProcess {
+
+    private final Map<Long, long[]> deltas = new HashMap<>(); // teamId -> {memberCount, ageSum}
+    private final Set<Long> removedTeams = new HashSet<>();
+
+    private TeamStatsDeltas() {
+    }
+
+    // 세션(= 스프링 트랜잭션)마다 하나씩 만들어서 하이버네이트 트랜잭션 완료 직전 작업으로 등록한다
+    public static TeamStatsDeltas current(SessionImplementor session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            TeamStatsDeltas deltas = new TeamStatsDeltas();
+            session.getActionQueue().registerProcess(deltas);
+            return deltas;
+        }
+
+        TeamStatsDeltas deltas = (TeamStatsDeltas) TransactionSynchronizationManager.getResource(session);
+        if (deltas == null) {
+            deltas = new TeamStatsDeltas();
+            session.getActionQueue().registerProcess(deltas);
+            TransactionSynchronizationManager.bindResource(session, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(session);
+                }
+            });
+        }
+        return deltas;
+    }
+
+    public void add(Long teamId, long memberCount, long ageSum) {
+        long[] delta = deltas.computeIfAbsent(teamId, id -> new long[2]);
+        delta[0] += memberCount;
+        delta[1] += ageSum;
+    }
+
+    public void teamRemoved(Long teamId) {
+        removedTeams.add(teamId);
+    }
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+        // 삭제와 update 를 한번에 팀 id 순으로 돈다. 모든 트랜잭션이 같은 순서로 잠가서 데드락을 피한다
+        Set<Long> teamIds = new TreeSet<>(deltas.keySet());
+        teamIds.addAll(removedTeams);
+        for (Long teamId : teamIds) {
+            if (removedTeams.contains(teamId)) {
+                session.createQuery("delete from TeamStats s where s.teamId = :teamId")
+                    .setParameter("teamId", teamId)
+                    .executeUpdate();
+                continue;
+            }
+            long[] delta = deltas.get(teamId);
+            if (addTo(session, teamId, delta) == 0 && !insert(session, teamId, delta) // 새 팀 (또는 통계가 만들어지기 전의 팀)
+                && addTo(session, teamId, delta) == 0) { // insert 가 겹쳤으면 먼저 만든 쪽의 row 에 더한다
+                // 통계 때문에 회원 저장을 실패시키지 않는다. 어긋난 팀은 TeamStatsRebuilder 로 다시 센다
+                log.warn("could not apply team stats delta for team {}, rebuild it with TeamStatsRebuilder", teamId);
+            }
+        }
+    }
+
+    // 읽고 더해서 저장하지 않고 DB 에서 더한다 (동시에 커밋되는 트랜잭션끼리 덮어쓰지 않는다)
+    private static int addTo(SessionImplementor session, Long teamId, long[] delta) {
+        return session.createQuery("update TeamStats s"
+                + " set s.memberCount = s.memberCount + :memberCount, s.ageSum = s.ageSum + :ageSum"
+                + " where s.teamId = :teamId")
+            .setParameter("memberCount", delta[0])
+            .setParameter("ageSum", delta[1])
+            .setParameter("teamId", teamId)
+            .executeUpdate();
+    }
+
+    // 같은 팀의 row 를 다른 트랜잭션이 동시에 만들면 PK 가 겹친다. savepoint 로 되돌려서 트랜잭션은 계속 쓸 수 있게 한다
+    // (persist 로 넣으면 커밋 시점의 flush 에서 터져서 회원 저장까지 롤백된다)
+    private static boolean insert(SessionImplementor session, Long teamId, long[] delta) {
+        return session.doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(
+                "insert into team_stats (team_id, member_count, age_sum) values (?, ?, ?)")) {
+                statement.setLong(1, teamId);
+                statement.setLong(2, delta[0]);
+                statement.setLong(3, delta[1]);
+                statement.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                log.debug("team stats row for team {} was created concurrently", teamId, e);
+                return false;
+            }
+        });
+    }
+}
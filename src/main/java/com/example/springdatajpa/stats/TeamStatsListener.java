@@ -0,0 +1,91 @@
+package com.example.springdatajpa.stats;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.entity.Team;
+import java.util.Objects;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+
+// 회원 저장/삭제/팀 변경/나이 변경을 팀별 변화량으로 바꿔서 TeamStatsDeltas 에 모은다 (HibernateListenerConfig 에서 등록)
+// JPQL 벌크 연산은 이벤트가 없으므로 호출하는 쪽에서 TeamStatsRecorder 로 직접 알려준다
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            Long teamId = teamId(((Member) entity).getTeam());
+            if (teamId != null) {
+                TeamStatsDeltas.current(event.getSession()).add(teamId, 1, ((Member) entity).getAge());
+            }
+        } else if (entity instanceof Team) {
+            TeamStatsDeltas.current(event.getSession()).add(((Team) entity).getId(), 0, 0); // 회원 0명 통계를 만든다
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        if (!(event.getEntity() instanceof Member) || oldState == null) { // oldState 가 없으면 (select 없이 update 한 준영속 엔티티) 알 수 없다
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        int team = persister.getEntityMetamodel().getPropertyIndex("team");
+        int age = persister.getEntityMetamodel().getPropertyIndex("age");
+        Long oldTeamId = teamId(oldState[team]);
+        Long newTeamId = teamId(event.getState()[team]);
+        int oldAge = (Integer) oldState[age];
+        int newAge = (Integer) event.getState()[age];
+
+        TeamStatsDeltas deltas = TeamStatsDeltas.current(event.getSession());
+        if (Objects.equals(oldTeamId, newTeamId)) {
+            if (newTeamId != null && oldAge != newAge) {
+                deltas.add(newTeamId, 0, newAge - oldAge);
+            }
+            return;
+        }
+        if (oldTeamId != null) { // changeTeam
+            deltas.add(oldTeamId, -1, -oldAge);
+        }
+        if (newTeamId != null) {
+            deltas.add(newTeamId, 1, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            Object[] state = event.getDeletedState();
+            Long teamId = teamId(state[persister.getEntityMetamodel().getPropertyIndex("team")]);
+            if (teamId != null) {
+                int age = (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+                TeamStatsDeltas.current(event.getSession()).add(teamId, -1, -age);
+            }
+        } else if (entity instanceof Team) {
+            TeamStatsDeltas.current(event.getSession()).teamRemoved(((Team) entity).getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) { // 지연로딩 프록시를 초기화하지 않고 id 만 꺼낸다
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.springdatajpa.stats;
+
+import com.example.springdatajpa.entity.TeamStats;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// team_stats 를 member 테이블에서 처음부터 다시 센다 (통계를 도입하기 전 데이터, 이벤트 없이 바뀐 데이터를 맞출 때)
+// 팀 id 를 chunkSize 개씩 나눠서 repositoryExecutor 에서 청크마다 별도 트랜잭션으로 동시에 센다
+@Slf4j
+@Component
+public class TeamStatsRebuilder {
+
+    private final EntityManager em;
+    private final Executor executor;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    public TeamStatsRebuilder(EntityManager em, @Qualifier("repositoryExecutor") Executor executor,
+        PlatformTransactionManager transactionManager,
+        @Value("${datajpa.team-stats.rebuild-chunk-size:100}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.em = em;
+        this.executor = executor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public int rebuild() { // 다시 센 팀 수
+        List<Long> teamIds = transaction.execute(status ->
+            em.createQuery("select t.id from Team t order by t.id", Long.class).getResultList());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < teamIds.size(); from += chunkSize) {
+            List<Long> chunk = teamIds.subList(from, Math.min(from + chunkSize, teamIds.size()));
+            futures.add(CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> rebuild(chunk)),
+                executor));
+        }
+        try {
+            futures.forEach(CompletableFuture::join);
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+
+        transaction.executeWithoutResult(status ->
+            em.createQuery("delete from TeamStats s where s.teamId not in (select t.id from Team t)").executeUpdate());
+        log.info("rebuilt team stats for {} teams in {} chunks", teamIds.size(), futures.size());
+        return teamIds.size();
+    }
+
+    private void rebuild(List<Long> teamIds) {
+        // 통계 row 를 먼저 잠근다. 다시 세는 동안 커밋하려는 회원 변경은 잠금을 기다렸다가 다시 센 값 위에 변화량을 더한다
+        Map<Long, TeamStats> stats = new HashMap<>();
+        em.createQuery("select s from TeamStats s where s.teamId in :teamIds", TeamStats.class)
+            .setParameter("teamIds", teamIds)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList()
+            .forEach(s -> stats.put(s.getTeamId(), s));
+
+        Map<Long, Object[]> counted = new HashMap<>();
+        em.createQuery("select m.team.id, count(m), sum(m.age) from Member m"
+                + " where m.team.id in :teamIds group by m.team.id", Object[].class)
+            .setParameter("teamIds", teamIds)
+            .getResultList()
+            .forEach(row -> counted.put((Long) row[0], row));
+
+        for (Long teamId : teamIds) {
+            Object[] row = counted.get(teamId);
+            long memberCount = row == null ? 0 : (Long) row[1];
+            long ageSum = row == null ? 0 : (Long) row[2];
+            TeamStats existing = stats.get(teamId);
+            if (existing == null) {
+                em.persist(new TeamStats(teamId, memberCount, ageSum));
+            } else {
+                existing.reset(memberCount, ageSum);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.springdatajpa.stats;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+
+// JPQL 벌크 연산은 엔티티 이벤트가 없어서 TeamStatsListener 가 모른다. 벌크 연산 직전에 같은 트랜잭션에서 대상 회원을 팀별로 세서 알려준다
+// condition 은 회원 별칭 m 기준 JPQL 조건이다. ex) "m.age >= :age"
+@Component
+public class TeamStatsRecorder {
+
+    private final EntityManager em;
+
+    public TeamStatsRecorder(EntityManager em) {
+        this.em = em;
+    }
+
+    public void membersAged(String condition, Map<String, Object> params) { // 대상 회원 나이가 1씩 늘어난다
+        List<Object[]> rows = query("select m.team.id, count(m) from Member m where m.team is not null and ("
+            + condition + ") group by m.team.id", params).getResultList();
+        TeamStatsDeltas deltas = deltas();
+        for (Object[] row : rows) {
+            deltas.add((Long) row[0], 0, (Long) row[1]);
+        }
+    }
+
+    public void membersRemoved(String condition, Map<String, Object> params) {
+        List<Object[]> rows = query("select m.team.id, count(m), sum(m.age) from Member m where m.team is not null and ("
+            + condition + ") group by m.team.id", params).getResultList();
+        TeamStatsDeltas deltas = deltas();
+        for (Object[] row : rows) {
+            deltas.add((Long) row[0], -(Long) row[1], -(Long) row[2]);
+        }
+    }
+
+    public void teamsRemoved(Collection<Long> teamIds) {
+        TeamStatsDeltas deltas = deltas();
+        teamIds.forEach(deltas::teamRemoved);
+    }
+
+    private TypedQuery<Object[]> query(String jpql, Map<String, Object> params) {
+        TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private TeamStatsDeltas deltas() {
+        return TeamStatsDeltas.current(em.unwrap(SessionImplementor.class));
+    }
+}
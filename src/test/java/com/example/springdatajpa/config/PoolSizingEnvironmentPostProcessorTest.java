@@ -0,0 +1,55 @@
+package com.example.springdatajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+class PoolSizingEnvironmentPostProcessorTest {
+
+    private final PoolSizingEnvironmentPostProcessor postProcessor = new PoolSizingEnvironmentPostProcessor();
+
+    @Test
+    void poolSizeFromCoreCount() {
+        //given
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("datajpa.datasource.pool.auto-size", "true");
+
+        //when
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        //then
+        int expected = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        assertThat(environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class))
+            .isEqualTo(expected);
+        assertThat(environment.getProperty("datajpa.datasource.replica.hikari.maximum-pool-size", Integer.class))
+            .isEqualTo(expected);
+    }
+
+    @Test
+    void explicitPoolSizeWins() {
+        //given
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("datajpa.datasource.pool.auto-size", "true")
+            .withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+
+        //when
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        //then
+        assertThat(environment.getProperty("spring.datasource.hikari.maximum-pool-size")).isEqualTo("7");
+    }
+
+    @Test
+    void disabledByDefault() {
+        //given
+        MockEnvironment environment = new MockEnvironment();
+
+        //when
+        postProcessor.postProcessEnvironment(environment, new SpringApplication());
+
+        //then
+        assertThat(environment.containsProperty("spring.datasource.hikari.maximum-pool-size")).isFalse();
+    }
+}
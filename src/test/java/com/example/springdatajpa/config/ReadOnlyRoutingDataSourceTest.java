@@ -0,0 +1,54 @@
+package com.example.springdatajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReadOnlyRoutingDataSourceTest { // 로컬 H2 인메모리 DB 두 개로 primary / replica 를 흉내낸다
+
+    private DataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource = new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primary, replica));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        //when
+        transactionTemplate.setReadOnly(true);
+        String url = transactionTemplate.execute(status -> currentUrl());
+
+        //then
+        assertThat(url).contains("replica");
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        //when
+        String url = transactionTemplate.execute(status -> currentUrl());
+
+        //then
+        assertThat(url).contains("primary");
+    }
+
+    private String currentUrl() {
+        try {
+            return DataSourceUtils.getConnection(dataSource).getMetaData().getURL();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.springdatajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=false") // 운영과 같이 하이버네이트 통계 없이
+class SecondLevelCacheMetricsTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void memberRegionHitsAndMissesAreExported() {
+        //given
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)).getId());
+        emf.getCache().evictAll();
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(memberId)); // miss -> DB 에서 읽고 put
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(memberId)); // hit
+
+        //then
+        assertThat(gets("miss")).isGreaterThan(misses);
+        assertThat(gets("hit")).isGreaterThan(hits);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+            .tag("cache", Member.class.getName())
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+}
@@ -1,6 +1,14 @@
 package com.example.springdatajpa.repository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.example.springdatajpa.entity.Item;
+import com.example.springdatajpa.sql.QueryCountContext;
+import com.example.springdatajpa.sql.QueryCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,6 +19,14 @@ class ItemRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
     @Test
     void save() {
         //given
@@ -21,4 +37,36 @@ class ItemRepositoryTest {
 
         //then
     }
+
+    @Test
+    void insertWithoutSelect() {
+        //when
+        QueryCountContext context = QueryCounter.measure(() ->
+            itemRepository.persistAll(Arrays.asList(new Item("B"), new Item("C"))));
+
+        //then
+        assertThat(context.getSelects()).isEqualTo(0); // merge 했다면 id 마다 select 가 한번씩 나간다
+        assertThat(context.getInserts()).isGreaterThanOrEqualTo(1); // batch insert
+        assertThat(itemRepository.findAllById(Arrays.asList("B", "C"))).hasSize(2);
+    }
+
+    @Test
+    void detectSelectBeforeInsert() {
+        //given
+        Item item = itemRepository.insert(new Item("D")); // createDate 가 채워진다 -> isNew() == false
+        itemRepository.delete(item);
+        double before = selectBeforeInsertCount();
+
+        //when
+        itemRepository.save(item); // DB 에는 없지만 isNew() 가 false 라 merge -> select 후 insert
+
+        //then
+        assertThat(selectBeforeInsertCount()).isEqualTo(before + 1);
+        List<Item> items = itemRepository.findAll();
+        assertThat(items).extracting(Item::getId).containsExactly("D");
+    }
+
+    private double selectBeforeInsertCount() {
+        return meterRegistry.counter("datajpa.save.select-before-insert", "entity", "Item").count();
+    }
 }
@@ -0,0 +1,147 @@
+package com.example.springdatajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.MemberIdCache;
+import com.example.springdatajpa.sql.QueryCountContext;
+import com.example.springdatajpa.sql.QueryCounter;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class MemberCacheTest { // 캐시는 커밋된 데이터만 담기 때문에 트랜잭션을 직접 나눠서 검증한다
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MemberIdCache memberIdCache;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        emf.getCache().evictAll();
+        memberIdCache.invalidateAll();
+    }
+
+    @Test
+    void findByUserNameServedFromCache() {
+        //given
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)).getId());
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findMemberByUserName("member1"));
+
+        //when
+        Member[] found = new Member[1];
+        QueryCountContext context = QueryCounter.measure(() -> found[0] = transactionTemplate.execute(
+            status -> memberRepository.findMemberByUserName("member1")));
+
+        //then
+        assertThat(found[0].getId()).isEqualTo(memberId);
+        assertThat(context.getSelects()).isEqualTo(0); // userName -> id 는 MemberIdCache, id -> 회원은 2차 캐시
+        assertThat(emf.getCache().contains(Member.class, memberId)).isTrue();
+    }
+
+    @Test
+    void streamAndScanSkipSecondLevelCache() {
+        //given
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)).getId());
+        emf.getCache().evictAll();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Member> stream = memberRepository.streamMemberWithTeam(100)) {
+                stream.forEach(member -> {
+                });
+            }
+        });
+        memberRepository.scanAll("cache-test", 2, page -> {
+        });
+
+        //then
+        assertThat(emf.getCache().contains(Member.class, memberId)).isFalse(); // 전체 조회가 캐시를 채우지 않는다
+    }
+
+    @Test
+    void saveAndDeleteInvalidateLookup() {
+        //given
+        Member member1 = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)));
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findByUserName("member1"));
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("member1", 20)));
+        List<Member> afterSave = transactionTemplate.execute(status -> memberRepository.findByUserName("member1"));
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(member1.getId()));
+        List<Member> afterDelete = transactionTemplate.execute(status -> memberRepository.findByUserName("member1"));
+
+        //then
+        assertThat(afterSave).extracting("age").containsExactlyInAnyOrder(10, 20);
+        assertThat(afterDelete).extracting("age").containsExactly(20);
+        assertThat(emf.getCache().contains(Member.class, member1.getId())).isFalse();
+    }
+
+    @Test
+    void ageUpdateKeepsUserNameLookup() {
+        //given
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)).getId());
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findMemberByUserName("member1"));
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(memberId).get().setAge(20));
+        Member[] found = new Member[1];
+        QueryCountContext context = QueryCounter.measure(() -> found[0] = transactionTemplate.execute(
+            status -> memberRepository.findMemberByUserName("member1")));
+
+        //then
+        assertThat(found[0].getAge()).isEqualTo(20);
+        assertThat(context.getSelects()).isEqualTo(0); // 쿼리 캐시였다면 member 테이블 변경으로 통째로 무효화됐다
+    }
+
+    @Test
+    void renameEvictsOldAndNewUserName() {
+        //given
+        Long memberId = transactionTemplate.execute(status -> memberRepository.save(new Member("member1", 10)).getId());
+        transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("member2", 20)));
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findByUserName("member1"));
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findByUserName("member2"));
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findById(memberId).get().setUserName("member2"));
+
+        //then
+        assertThat(transactionTemplate.execute(status -> memberRepository.findByUserName("member1"))).isEmpty();
+        assertThat(transactionTemplate.execute(status -> memberRepository.findByUserName("member2")))
+            .extracting("age").containsExactly(10, 20);
+    }
+
+    @Test
+    void rolledBackSaveIsNotCached() {
+        //given
+        transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("member1", 10)));
+
+        //when
+        List<Member> inTransaction = transactionTemplate.execute(status -> {
+            memberRepository.save(new Member("member1", 20));
+            List<Member> result = memberRepository.findByUserName("member1");
+            status.setRollbackOnly();
+            return result;
+        });
+        List<Member> afterRollback = transactionTemplate.execute(status -> memberRepository.findByUserName("member1"));
+
+        //then
+        assertThat(inTransaction).hasSize(2);
+        assertThat(afterRollback).extracting("age").containsExactly(10); // 롤백된 회원 id 가 캐시에 남지 않는다
+    }
+}
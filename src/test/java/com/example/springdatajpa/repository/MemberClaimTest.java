@@ -0,0 +1,213 @@
+package com.example.springdatajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.support.LockHints;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQL8Dialect;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.LockModeConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class MemberClaimTest { // 여러 워커 스레드가 각자 트랜잭션으로 회원을 나눠 가져가는지 검증한다
+
+    private static final int QUEUED_AGE = 10;
+    private static final int DONE_AGE = 99;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+    }
+
+    @Test
+    void claimRequiresTransaction() {
+        assertThatThrownBy(() -> memberRepository.claimNextByAge(QUEUED_AGE, 10))
+            .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void claimInIdOrder() {
+        //given
+        List<Long> ids = saveQueuedMembers(5);
+
+        //when
+        List<Long> claimed = transactionTemplate.execute(status ->
+            memberRepository.claimNextByAge(QUEUED_AGE, 3).stream().map(Member::getId).collect(Collectors.toList()));
+
+        //then
+        assertThat(claimed).containsExactlyElementsOf(ids.subList(0, 3));
+    }
+
+    @ParameterizedTest(name = "{0} workers")
+    @ValueSource(ints = {1, 8, 32})
+    void workersClaimDisjointRows(int workers) throws Exception {
+        assumeSkipLocked();
+
+        //given
+        int rows = 2_000;
+        saveQueuedMembers(rows);
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        List<Long> duplicates = new ArrayList<>();
+
+        //when
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    while (true) {
+                        Integer claimed = transactionTemplate.execute(status -> {
+                            List<Member> members = memberRepository.claimNextByAge(QUEUED_AGE, 10);
+                            for (Member member : members) {
+                                if (!processed.add(member.getId())) {
+                                    synchronized (duplicates) {
+                                        duplicates.add(member.getId());
+                                    }
+                                }
+                                member.setAge(DONE_AGE); // 처리 완료 -> 큐에서 빠진다
+                            }
+                            return members.size();
+                        });
+                        if (claimed == null || claimed == 0) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%d workers: %d rows in %.2fs (%.0f rows/s)%n", workers, rows, seconds, rows / seconds);
+
+        //then
+        assertThat(duplicates).isEmpty();
+        assertThat(processed).hasSize(rows);
+    }
+
+    @Test
+    void lockedRowIsSkippedOrRejected() throws Exception {
+        assumeSkipLocked();
+
+        //given
+        saveQueuedMembers(1);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.findLockByUserName("member0"); // 다른 트랜잭션이 잠그고 있는 동안
+            locked.countDown();
+            awaitQuietly(release);
+        }));
+        try {
+            locked.await(10, TimeUnit.SECONDS);
+
+            //when
+            List<Member> skipped = transactionTemplate.execute(
+                status -> memberRepository.findSkipLockedByUserName("member0"));
+
+            //then
+            assertThat(skipped).isEmpty();
+            assertThatThrownBy(() -> transactionTemplate.execute(
+                status -> memberRepository.findNoWaitByUserName("member0")))
+                .isInstanceOf(PessimisticLockingFailureException.class); // 기다리지 않고 바로 실패한다
+        } finally {
+            release.countDown();
+            holder.get();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void lockHintsRenderNoWaitAndSkipLocked() throws Exception {
+        // H2 1.4 에서는 둘 다 그냥 for update 가 되므로, 지원하는 방언으로 리포지토리 메서드의 @Lock + @QueryHints 를 렌더링한다
+        //given
+        LockOptions noWait = lockOptions("findNoWaitByUserName");
+        LockOptions skipLocked = lockOptions("findSkipLockedByUserName");
+
+        //when //then
+        for (Dialect dialect : Arrays.asList(new PostgreSQL10Dialect(), new MySQL8Dialect())) {
+            assertThat(dialect.getForUpdateString(noWait)).containsIgnoringCase("for update nowait");
+            assertThat(dialect.getForUpdateString(skipLocked)).containsIgnoringCase("for update skip locked");
+        }
+    }
+
+    // 하이버네이트가 쿼리를 실행할 때 만드는 것과 같은 LockOptions (락 모드 + javax.persistence.lock.timeout 힌트)
+    private static LockOptions lockOptions(String methodName) throws NoSuchMethodException {
+        Method method = MemberRepository.class.getMethod(methodName, String.class);
+        LockOptions lockOptions = new LockOptions(LockModeConverter.convertToLockMode(method.getAnnotation(Lock.class).value()));
+        for (QueryHint hint : method.getAnnotation(QueryHints.class).value()) {
+            if (LockHints.TIMEOUT.equals(hint.name())) {
+                lockOptions.setTimeOut(Integer.parseInt(hint.value()));
+            }
+        }
+        return lockOptions;
+    }
+
+    private void assumeSkipLocked() {
+        // H2 1.4 는 SKIP LOCKED 가 없어서 워커끼리 같은 row 를 기다린다 (./gradlew lockingTest 로 PostgreSQL, MySQL 8 에서 실행한다)
+        Assumptions.assumeTrue(emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect().supportsSkipLocked(),
+            "dialect does not support SKIP LOCKED");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Long> saveQueuedMembers(int count) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids.add(memberRepository.save(new Member("member" + i, QUEUED_AGE)).getId());
+            }
+            return ids;
+        });
+    }
+}
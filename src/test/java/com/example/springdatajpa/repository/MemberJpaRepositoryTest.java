@@ -127,12 +127,13 @@ class MemberJpaRepositoryTest {
         memberJpaRepository.save(new Member("member2", 19));
         memberJpaRepository.save(new Member("member3", 20));
         memberJpaRepository.save(new Member("member4", 21));
-        memberJpaRepository.save(new Member("member5", 40));
+        Member member5 = memberJpaRepository.save(new Member("member5", 40));
 
         //when
         int resultCount = memberJpaRepository.bulkAgePlus(20);
 
         //then
         assertThat(resultCount).isEqualTo(3);
+        assertThat(member5.getAge()).isEqualTo(41); // 영속성 컨텍스트의 회원도 맞춰준다
     }
 }
@@ -1,15 +1,37 @@
 package com.example.springdatajpa.repository;
 
+import static com.example.springdatajpa.sql.QueryAssertions.assertMaxQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.example.springdatajpa.dto.MemberDto;
+import com.example.springdatajpa.dto.MemberSummary;
 import com.example.springdatajpa.entity.Member;
 import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.support.BulkProgress;
+import com.example.springdatajpa.repository.support.ChunkExecution;
+import com.example.springdatajpa.repository.support.CountMode;
+import com.example.springdatajpa.repository.support.CountQueryCache;
+import com.example.springdatajpa.repository.support.ShapedSpecification;
+import com.example.springdatajpa.sql.QueryCountContext;
+import com.example.springdatajpa.sql.QueryCounter;
+import com.example.springdatajpa.sql.RepeatedSelect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +44,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SpringBootTest
 @Transactional
@@ -40,6 +64,15 @@ class MemberRepositoryTest {
     @Autowired
     private MemberQueryRepository memberQueryRepository;
 
+    @Autowired
+    private CountQueryCache countQueryCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     void testMember() {
         System.out.println("memberRepository = " + memberRepository.getClass());
@@ -90,6 +123,26 @@ class MemberRepositoryTest {
         assertThat(deletedCount).isEqualTo(0);
     }
 
+    @Test
+    void auditing() {
+        //given
+        Member member1 = memberRepository.save(new Member("member1"));
+        Member member2 = memberRepository.save(new Member("member2"));
+        em.flush();
+
+        //when
+        member1.setUserName("member1-1");
+        em.flush();
+
+        //then
+        assertThat(member1.getCreatedDate()).isNotNull();
+        assertThat(member1.getLastModified()).isAfterOrEqualTo(member1.getCreatedDate());
+        assertThat(member2.getLastModified()).isEqualTo(member2.getCreatedDate());
+        assertThat(member1.getCreatedBy()).isNotNull()
+            .isEqualTo(member2.getCreatedBy()) // 등록자는 트랜잭션당 한번만 구한다
+            .isEqualTo(member1.getLastModifiedBy());
+    }
+
     @Test
     void findByUsernameAndGreaterThen() {
         //given
@@ -174,6 +227,37 @@ class MemberRepositoryTest {
         assertThat(userNameList.get(0).getTeamName()).isEqualTo("teamA");
     }
 
+    @DisplayName("Projection 페이징은 엔티티를 영속성 컨텍스트에 올리지 않는다")
+    @Test
+    void pagingWithProjections() {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 10, team));
+        memberRepository.save(new Member("member3", 10));
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "userName"));
+
+        //when
+        Page<MemberSummary> summaries = memberRepository.findMemberSummaries(pageRequest);
+        Page<MemberDto> dtos = memberRepository.findMemberDtoPage(pageRequest);
+        Page<MemberDto> customDtos = memberRepository.findMemberDtoPage(pageRequest, CountMode.EXACT);
+
+        //then
+        assertThat(summaries.getTotalElements()).isEqualTo(3);
+        assertThat(summaries.getContent()).extracting("userName").containsExactly("member1", "member2");
+        assertThat(summaries.getContent().get(0).getTeamName()).isEqualTo("teamA");
+
+        assertThat(dtos.getContent()).extracting("teamName").containsExactly("teamA", "teamA");
+        assertThat(customDtos.getContent()).isEqualTo(dtos.getContent());
+        assertThat(customDtos.getTotalElements()).isEqualTo(3);
+
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     void findUserNames() {
         //given
@@ -397,6 +481,246 @@ class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue();
     }
 
+    @DisplayName("컨텐츠와 count 를 다른 스레드에서 동시에 조회하는 비동기 페이징")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 다른 스레드에서 조회하므로 커밋된 데이터가 필요하다
+    void asyncPaging() throws Exception {
+        //given
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = teamRepository.save(new Team("teamA"));
+            for (int i = 1; i <= 5; i++) {
+                memberRepository.save(new Member("member" + i, 10, teamA));
+            }
+        });
+
+        try {
+            //when
+            CompletableFuture<Page<Member>> page = memberRepository.findAsyncByAge(10, PageRequest.of(0, 3, Sort.by("userName")));
+            CompletableFuture<Long> count = memberRepository.countAsync();
+
+            //then
+            assertThat(page.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(5);
+            assertThat(page.get().getContent()).extracting(member -> member.getTeam().getName()) // 팀까지 같이 가져온다
+                .containsOnly("teamA");
+            assertThat(count.get(5, TimeUnit.SECONDS)).isEqualTo(5);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                memberRepository.deleteAllInBatch();
+                teamRepository.deleteAllInBatch();
+            });
+        }
+    }
+
+    @DisplayName("count 결과를 캐시하는 페이징 쿼리")
+    @Test
+    void pagingWithCachedCount() {
+        //given
+        countQueryCache.invalidateAll();
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 10));
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "userName"));
+        Page<Member> first = memberRepository.findPageByAge(10, pageRequest, CountMode.CACHED);
+
+        //when
+        memberRepository.save(new Member("member6", 10));
+        Page<Member> cached = memberRepository.findPageByAge(10, pageRequest, CountMode.CACHED);
+        Page<Member> exact = memberRepository.findPageByAge(10, pageRequest, CountMode.EXACT);
+
+        //then
+        assertThat(first.getContent()).extracting("userName")
+            .containsExactly("member5", "member4", "member3");
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(cached.getTotalElements()).isEqualTo(5); // TTL 동안은 캐시된 count를 사용한다
+        assertThat(exact.getTotalElements()).isEqualTo(6);
+    }
+
+    @DisplayName("컨텐츠가 페이지 크기보다 작으면 count 쿼리 없이 전체 개수를 계산한다")
+    @Test
+    void pagingSkipsCountOnShortPage() {
+        //given
+        countQueryCache.invalidateAll();
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+
+        //when
+        Page<Member> page = memberRepository.findPageByAge(10, PageRequest.of(0, 3), CountMode.CACHED);
+        memberRepository.save(new Member("member3", 10));
+        Page<Member> next = memberRepository.findPageByAge(10, PageRequest.of(0, 2), CountMode.CACHED);
+
+        //then
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(next.getTotalElements()).isEqualTo(3); // 첫 조회는 count를 캐시하지 않았다
+    }
+
+    @DisplayName("offset 없이 (userName, id) 커서로 다음 페이지를 조회하는 keyset 페이징")
+    @Test
+    void keysetPaging() {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member2", 20)); // 같은 userName은 id로 순서를 정한다
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+
+        //when
+        MemberWindow first = memberRepository.findMemberWindow(null, 3);
+        MemberCursor cursor = MemberCursor.decode(first.nextCursor().encode()); // 토큰으로 왕복해도 같은 커서
+        MemberWindow second = memberRepository.findMemberWindow(cursor, 3);
+
+        //then
+        assertThat(first.getContent()).extracting("userName")
+            .containsExactly("member1", "member2", "member2");
+        assertThat(first.isHasNext()).isTrue();
+
+        assertThat(second.getContent()).extracting("userName")
+            .containsExactly("member3", "member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @DisplayName("userName 이 없는 회원도 keyset 페이징에서 빠지지 않는다 (맨 앞에 id 순)")
+    @Test
+    void keysetPagingWithNullUserNames() {
+        //given
+        Member noName1 = memberRepository.save(new Member(null, 10));
+        Member noName2 = memberRepository.save(new Member(null, 10));
+        Member noName3 = memberRepository.save(new Member(null, 10));
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+
+        //when
+        List<Member> all = new ArrayList<>();
+        MemberCursor cursor = null;
+        do {
+            MemberWindow window = memberRepository.findMemberWindow(cursor, 2);
+            all.addAll(window.getContent());
+            cursor = window.nextCursor() == null ? null : MemberCursor.decode(window.nextCursor().encode());
+        } while (cursor != null);
+
+        //then
+        assertThat(all).extracting("userName").containsExactly(null, null, null, "member1", "member2");
+        assertThat(all.subList(0, 3)).containsExactly(noName1, noName2, noName3);
+    }
+
+    @Test
+    void saveAllBatched() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            members.add(new Member("member" + i, i));
+        }
+
+        //when
+        int savedCount = memberRepository.saveAllBatched(members, 50); // 50개씩 batch insert 후 flush/detach
+
+        //then
+        assertThat(savedCount).isEqualTo(120);
+        assertThat(memberRepository.count()).isEqualTo(120);
+        assertThat(em.contains(members.get(0))).isFalse(); // 저장한 회원은 준영속 상태
+        assertThat(em.contains(teamA)).isTrue(); // 호출한 쪽이 관리하던 엔티티는 그대로
+    }
+
+    @Test
+    void findByNamesInChunks() {
+        //given
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            names.add("member" + i);
+        }
+        memberRepository.saveAllBatched(() -> names.stream().map(name -> new Member(name, 10)).iterator(), 50);
+        names.add("nobody");
+
+        //when
+        List<Member> members = new ArrayList<>();
+        QueryCountContext context = QueryCounter.measure(() ->
+            members.addAll(memberRepository.findByNamesChunked(names, ChunkExecution.SEQUENTIAL))); // 512개씩 3번
+
+        //then
+        assertThat(members).hasSize(1100);
+        assertThat(context.getSelects()).isEqualTo(3);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 병렬 청크는 각자 트랜잭션이라 커밋된 데이터만 보인다
+    void findAllByIdInParallelChunks() {
+        //given
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 1100; i++) {
+                saved.add(memberRepository.save(new Member("member" + i, 10)).getId());
+            }
+            return saved;
+        });
+
+        try {
+            //when
+            List<Member> members = memberRepository.findAllByIdChunked(ids, ChunkExecution.PARALLEL);
+
+            //then
+            assertThat(members).extracting("id").containsExactlyInAnyOrderElementsOf(ids);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void parallelChunksDoNotStarveThePool() throws Exception {
+        //given
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 1100; i++) {
+                saved.add(memberRepository.save(new Member("member" + i, 10)).getId());
+            }
+            return saved;
+        });
+        int callers = 30; // 커넥션 풀(10)보다 많은 호출이 동시에 청크 3개씩을 기다린다
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            //when
+            List<Future<List<Member>>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return memberRepository.findAllByIdChunked(ids, ChunkExecution.PARALLEL);
+                }));
+            }
+            start.countDown();
+
+            //then
+            for (Future<List<Member>> future : futures) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).hasSize(ids.size());
+            }
+        } finally {
+            executor.shutdownNow();
+            transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        }
+    }
+
+    @Test
+    void parallelChunksInTransactionRunSequentially() {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            ids.add(memberRepository.save(new Member("member" + i, 10)).getId());
+        }
+
+        //when
+        List<Member> members = memberRepository.findAllByIdChunked(ids, ChunkExecution.PARALLEL);
+
+        //then
+        assertThat(members).hasSize(1100)
+            .allMatch(em::contains); // 호출한 트랜잭션에서 실행돼서 (아직 커밋 안 된 회원까지) 모두 영속 상태
+    }
+
     @Test
     void bulkUpdate() {
         //given
@@ -419,6 +743,45 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    void chunkedBulkUpdate() {
+        //given
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 20));
+        for (int i = 3; i <= 6; i++) {
+            memberRepository.save(new Member("member" + i, 20 + i));
+        }
+        List<BulkProgress> progress = new ArrayList<>();
+
+        //when
+        long resultCount = memberRepository.bulkAgePlus(20, 2, progress::add); // 2건씩 3번
+
+        //then
+        assertThat(resultCount).isEqualTo(5);
+        assertThat(progress).extracting("chunkRows").containsExactly(2, 2, 1);
+        assertThat(progress.get(2).getTotalRows()).isEqualTo(5);
+        assertThat(em.contains(member1)).isTrue(); // clear 하지 않는다
+        assertThat(member1.getAge()).isEqualTo(10);
+        assertThat(member2.getAge()).isEqualTo(21); // 영향받은 회원만 refresh
+    }
+
+    @Test
+    void chunkedBulkDelete() {
+        //given
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 30));
+
+        //when
+        long resultCount = memberRepository.bulkDeleteByAgeLessThan(20, 100, progress -> {
+        });
+
+        //then
+        assertThat(resultCount).isEqualTo(1);
+        assertThat(em.contains(member1)).isFalse(); // 삭제된 회원만 evict
+        assertThat(em.contains(member2)).isTrue();
+        assertThat(memberRepository.findAll()).containsExactly(member2);
+    }
+
     @Test
     void findMemberLazy() {
         //given
@@ -477,6 +840,76 @@ class MemberRepositoryTest {
         }
     }
 
+    @DisplayName("fetch join은 연관된 팀까지 쿼리 한 번으로 가져온다")
+    @Test
+    void fetchJoinRunsSingleQuery() {
+        //given
+        saveMembersWithTeams(3);
+        em.flush();
+        em.clear();
+
+        //when //then
+        assertMaxQueries(1, () -> {
+            for (Member member : memberRepository.findMemberFetchJoin()) {
+                member.getTeam().getName();
+            }
+        });
+    }
+
+    @DisplayName("지연로딩된 팀들은 batch fetch 로 in 쿼리 한 번에 초기화된다")
+    @Test
+    void batchFetchLazyTeams() {
+        //given
+        saveMembersWithTeams(3);
+        em.flush();
+        em.clear();
+
+        //when
+        QueryCountContext context = QueryCounter.measure(() -> {
+            for (Member member : memberRepository.findMemberCustom()) {
+                member.getTeam().getName(); // 첫 프록시를 초기화할 때 나머지 팀도 같이 가져온다
+            }
+        });
+
+        //then
+        assertThat(context.getTotal()).isEqualTo(2); // 회원 1번 + 팀 ceil(3/100)번
+        assertThat(context.getRepeatedSelects(2)).isEmpty();
+    }
+
+    @DisplayName("같은 엔티티를 한 건씩 반복 조회하는 것(N+1)을 찾아낸다")
+    @Test
+    void detectNPlusOne() {
+        //given
+        List<Long> teamIds = saveMembersWithTeams(3);
+        em.flush();
+        em.clear();
+
+        //when
+        QueryCountContext context = QueryCounter.measure(() -> {
+            for (Long teamId : teamIds) {
+                teamRepository.findById(teamId); // 팀마다 select 가 한 번씩 나간다
+            }
+        });
+
+        //then
+        assertThat(context.getTotal()).isEqualTo(3);
+        List<RepeatedSelect> repeated = context.getRepeatedSelects(3);
+        assertThat(repeated).hasSize(1);
+        assertThat(repeated.get(0).getTable()).isEqualTo("team");
+        assertThat(repeated.get(0).getCallSite()).contains("MemberRepositoryTest");
+    }
+
+    private List<Long> saveMembersWithTeams(int teamCount) {
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("member" + i, 10, team));
+            teamIds.add(team.getId());
+        }
+        return teamIds;
+    }
+
     @Test
     void queryHint() {
         //given
@@ -527,6 +960,162 @@ class MemberRepositoryTest {
         assertThat(findMembers).hasSize(1);
     }
 
+    @Test
+    void specWithNullValue() {
+        //given
+        em.persist(new Member("m1", 0));
+        em.flush();
+        em.clear();
+
+        //when
+        Specification<Member> spec = MemberSpec.userName(null);
+        List<Member> plain = memberRepository.findAll(spec); // 값을 바로 넣어서 만드는 경로
+        List<Member> cached = memberRepository.findAll(MemberSpec.userName(null)); // 파라미터로 바인딩하는 경로
+
+        //then
+        assertThat(plain).isEmpty();
+        assertThat(cached).isEmpty();
+    }
+
+    @Test
+    void specQueryCachedByShape() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m2", 0, teamA));
+        em.persist(new Member("m3", 0));
+        em.flush();
+        em.clear();
+        double hits = meterRegistry.counter("datajpa.spec.plan-cache", "result", "hit").count();
+
+        //when
+        ShapedSpecification<Member> spec1 = MemberSpec.userName("m1").and(MemberSpec.teamName("teamA"));
+        ShapedSpecification<Member> spec2 = MemberSpec.userName("m2").and(MemberSpec.teamName("teamA"));
+        List<Member> result1 = memberRepository.findAll(spec1);
+        List<Member> result2 = memberRepository.findAll(spec2); // 같은 모양 -> 한번 더 렌더링해서 같은 JPQL 인지 확인
+        List<Member> result1Again = memberRepository.findAll(spec1); // 확인된 뒤부터 렌더링된 JPQL 재사용
+        List<Member> result3 = memberRepository.findAll(MemberSpec.userName("m3").and(MemberSpec.teamName(null)));
+
+        //then
+        assertThat(spec1.getShape()).isEqualTo(spec2.getShape());
+        assertThat(result1).extracting("userName").containsExactly("m1");
+        assertThat(result2).extracting("userName").containsExactly("m2");
+        assertThat(result1Again).extracting("userName").containsExactly("m1");
+        assertThat(result3).extracting("userName").containsExactly("m3"); // 팀 조건 없음
+        assertThat(meterRegistry.counter("datajpa.spec.plan-cache", "result", "hit").count())
+            .isGreaterThanOrEqualTo(hits + 1);
+    }
+
+    @DisplayName("shape 이름이 겹쳐도 다른 조건의 JPQL 을 재사용하지 않는다")
+    @Test
+    void specShapeNameCollision() {
+        //given
+        em.persist(new Member("m1", 10));
+        em.persist(new Member("m2", 20));
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> byName = memberRepository.findAll(ShapedSpecification.<Member>of("dup", "value", "m1",
+            (root, query, cb, args) -> cb.equal(root.get("userName"), args.get("value", String.class))));
+        List<Member> byAge = memberRepository.findAll(ShapedSpecification.<Member>of("dup", "value", 20,
+            (root, query, cb, args) -> cb.equal(root.get("age"), args.get("value", Integer.class))));
+        memberRepository.findAll(branching(true));
+
+        //then
+        assertThat(byName).extracting("userName").containsExactly("m1"); // 람다가 다르면 다른 키
+        assertThat(byAge).extracting("userName").containsExactly("m2");
+        assertThatThrownBy(() -> memberRepository.findAll(branching(false))) // 같은 람다가 다른 조건을 만들면 예외
+            .hasMessageContaining("'branching'");
+    }
+
+    private static ShapedSpecification<Member> branching(boolean byName) {
+        return ShapedSpecification.of("branching", "value", byName ? "m1" : "m2", (root, query, cb, args) -> byName
+            ? cb.equal(root.get("userName"), args.get("value", String.class))
+            : cb.notEqual(root.get("userName"), args.get("value", String.class)));
+    }
+
+    @DisplayName("팀 단위 조회는 그 팀의 파티션(partition_no)만 읽는다")
+    @Test
+    void teamScopedQueryReadsOnePartition() {
+        //given
+        List<Long> teamIds = saveMembersWithTeams(3);
+        em.flush();
+        em.clear();
+        Long teamId = teamIds.get(0);
+        int partitionNo = Member.partitionOf(teamId);
+
+        //when
+        List<Member> members = new ArrayList<>();
+        List<MemberDto> dtos = new ArrayList<>();
+        List<Member> bySpec = new ArrayList<>();
+        QueryCountContext byTeamId = QueryCounter.measure(() -> members.addAll(memberRepository.findByTeamId(teamId)));
+        QueryCountContext dtoByTeamId = QueryCounter.measure(() ->
+            dtos.addAll(memberRepository.findMemberDtoByTeamId(teamId)));
+        QueryCountContext specByTeamId = QueryCounter.measure(() ->
+            bySpec.addAll(memberRepository.findAll(MemberSpec.teamId(teamId))));
+
+        //then
+        assertThat(members).isNotEmpty()
+            .allSatisfy(member -> assertThat(member.getPartitionNo()).isEqualTo(partitionNo))
+            .allSatisfy(member -> assertThat(member.getTeam().getId()).isEqualTo(teamId));
+        assertThat(dtos).hasSameSizeAs(members);
+        assertThat(bySpec).containsExactlyInAnyOrderElementsOf(members);
+        // 리포지토리가 실제로 보낸 SQL 을 H2 EXPLAIN 으로 확인한다: (partition_no, team_id) 인덱스로 그 파티션만 읽어야 한다
+        for (QueryCountContext context : Arrays.asList(byTeamId, dtoByTeamId, specByTeamId)) {
+            assertThat(context.getSelectStatements()).hasSize(1)
+                .allSatisfy(sql -> assertThat(sql).containsPattern("partition_no\\s*=\\s*\\?"))
+                .allSatisfy(sql -> assertThat(explain(sql, teamId)).containsIgnoringCase("idx_member_partition_team"));
+        }
+    }
+
+    private String explain(String sql, Long teamId) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setLong(i, teamId); // H2 는 바인딩 값과 상관없이 조건 컬럼으로 인덱스를 고른다
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    @Test
+    void repositoryMethodMetrics() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("m1", 0, teamA));
+        em.persist(new Member("m2", 0, teamA));
+        em.flush();
+        em.clear();
+        double rows = summaryTotal("datajpa.repository.rows");
+        double statements = summaryTotal("datajpa.repository.statements");
+        double loaded = summaryTotal("datajpa.repository.entities.loaded");
+
+        //when
+        memberRepository.findMemberFetchJoin();
+
+        //then
+        assertThat(meterRegistry.find("datajpa.repository.invocations")
+            .tags("repository", "MemberRepository", "method", "findMemberFetchJoin", "outcome", "success")
+            .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(summaryTotal("datajpa.repository.rows")).isEqualTo(rows + 2);
+        assertThat(summaryTotal("datajpa.repository.statements")).isEqualTo(statements + 1); // fetch join 한번
+        assertThat(summaryTotal("datajpa.repository.entities.loaded")).isEqualTo(loaded + 3); // 회원 2 + 팀 1
+    }
+
+    private double summaryTotal(String name) {
+        DistributionSummary summary = meterRegistry.find(name)
+            .tags("repository", "MemberRepository", "method", "findMemberFetchJoin")
+            .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
     @Test
     void queryByExample() {
         //given
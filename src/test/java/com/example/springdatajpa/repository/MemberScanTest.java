@@ -0,0 +1,120 @@
+package com.example.springdatajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.entity.ScanCheckpoint;
+import com.example.springdatajpa.repository.support.ScanResult;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class MemberScanTest { // 청크마다 다른 스레드/트랜잭션에서 읽으므로 커밋된 데이터로 검증한다
+
+    private static final int MEMBERS = 1000;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() { // 전체 테이블을 읽으므로 다른 테스트가 커밋해둔 회원도 지운다
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from ScanCheckpoint").executeUpdate();
+            memberRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void scanAllReadsEveryMemberOnce() {
+        //given
+        List<Long> memberIds = saveMembers();
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        //when
+        ScanResult result = memberRepository.scanAll("scan-all", 10, page -> {
+            threads.add(Thread.currentThread().getName());
+            page.forEach(member -> assertThat(scanned.add(member.getId())).isTrue());
+        });
+
+        //then
+        assertThat(result.getChunks()).isEqualTo(10);
+        assertThat(result.getRows()).isEqualTo(MEMBERS);
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(memberIds);
+        assertThat(threads).allMatch(name -> name.startsWith("repository-"));
+        assertThat(checkpoints("scan-all")).isEmpty(); // 다 끝나면 체크포인트를 지운다
+    }
+
+    @Test
+    void failedScanResumesFromCheckpoints() {
+        //given
+        List<Long> memberIds = saveMembers();
+        Long poison = memberIds.get(0); // 첫 청크가 실패한다
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+
+        //when
+        assertThatThrownBy(() -> memberRepository.scanAll("resume", 10, page -> {
+            if (page.stream().anyMatch(member -> member.getId().equals(poison))) {
+                throw new IllegalStateException("poison");
+            }
+            page.forEach(member -> scanned.add(member.getId()));
+        })).isInstanceOf(IllegalStateException.class);
+        List<ScanCheckpoint> afterFailure = checkpoints("resume");
+        long completed = afterFailure.stream().filter(ScanCheckpoint::isCompleted).count();
+
+        Set<Long> resumed = ConcurrentHashMap.newKeySet();
+        ScanResult result = memberRepository.scanAll("resume", 3, page -> // 이어서 읽을 때는 처음 나눈 청크를 그대로 쓴다
+            page.forEach(member -> resumed.add(member.getId())));
+
+        //then
+        assertThat(afterFailure).hasSize(10);
+        assertThat(afterFailure.get(0).isCompleted()).isFalse();
+        assertThat(result.getChunks()).isEqualTo(10);
+        assertThat(result.getSkippedChunks()).isEqualTo(completed);
+        assertThat(resumed).contains(poison);
+        assertThat(resumed).doesNotContainAnyElementsOf(completedMembers(afterFailure, scanned));
+        assertThat(resumed.size() + completedMembers(afterFailure, scanned).size()).isEqualTo(MEMBERS);
+        assertThat(checkpoints("resume")).isEmpty();
+    }
+
+    private List<Long> saveMembers() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.saveAllBatched(
+            IntStream.range(0, MEMBERS).mapToObj(i -> new Member("scan" + i, i % 100)).collect(Collectors.toList()),
+            100));
+        return transactionTemplate.execute(status -> em.createQuery(
+                "select m.id from Member m order by m.id", Long.class)
+            .getResultList());
+    }
+
+    private List<ScanCheckpoint> checkpoints(String jobName) {
+        return transactionTemplate.execute(status -> em.createQuery(
+                "select c from ScanCheckpoint c where c.jobName = :jobName order by c.chunkNo", ScanCheckpoint.class)
+            .setParameter("jobName", jobName)
+            .getResultList());
+    }
+
+    // 완료로 기록된 청크 범위에 들어있는, 첫 실행에서 읽은 회원
+    private static Set<Long> completedMembers(List<ScanCheckpoint> checkpoints, Set<Long> scanned) {
+        return scanned.stream()
+            .filter(id -> checkpoints.stream().anyMatch(c -> c.isCompleted() && id > c.getAfterId() && id <= c.getToId()))
+            .collect(Collectors.toSet());
+    }
+}
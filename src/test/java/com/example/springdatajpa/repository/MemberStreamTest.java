@@ -0,0 +1,94 @@
+package com.example.springdatajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springdatajpa.entity.Member;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class MemberStreamTest {
+
+    // 기본은 가볍게 돌리고, ./gradlew streamHeapTest 로 작은 힙(-Xmx128m)에서 100만 건을 확인한다 (DB 는 jdbc:h2:file)
+    private static final int ROWS = Integer.getInteger("member.stream.rows", 2_000);
+    private static final int FETCH_SIZE = 500;
+    private static final int HEAP_SAMPLES = 20;
+    private static final long MAX_HEAP_GROWTH = 32 * 1024 * 1024; // 100만 건을 들고 있으면 엔티티만으로 100MB 를 넘는다
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MemberQueryRepository memberQueryRepository;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    void streamKeepsPersistenceContextBounded() {
+        //given
+        saveMembers(ROWS);
+
+        //when
+        long[] count = {0};
+        int[] maxManaged = {0};
+        long[] maxHeapUsed = {0};
+        long sampleInterval = Math.max(FETCH_SIZE, ROWS / HEAP_SAMPLES);
+        Session session = em.unwrap(Session.class);
+        long baseline = heapUsedAfterGc();
+        try (Stream<Member> members = memberRepository.streamMemberCustom(FETCH_SIZE)) {
+            members.forEach(member -> {
+                count[0]++;
+                maxManaged[0] = Math.max(maxManaged[0], session.getStatistics().getEntityCount());
+                if (count[0] % sampleInterval == 0) {
+                    maxHeapUsed[0] = Math.max(maxHeapUsed[0], heapUsedAfterGc());
+                }
+            });
+        }
+
+        //then
+        assertThat(count[0]).isEqualTo(ROWS);
+        assertThat(maxManaged[0]).isLessThanOrEqualTo(FETCH_SIZE); // 테이블 크기와 상관없이 fetchSize 이하로 유지된다
+        assertThat(maxHeapUsed[0] - baseline).isLessThan(MAX_HEAP_GROWTH); // GC 후에도 남는(살아있는) 객체가 늘지 않는다
+    }
+
+    private static long heapUsedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Test
+    void streamAllMembers() {
+        //given
+        saveMembers(ROWS);
+
+        //when
+        long count;
+        try (Stream<Member> members = memberQueryRepository.streamAllMembers(FETCH_SIZE)) {
+            count = members.count();
+        }
+
+        //then
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isLessThanOrEqualTo(FETCH_SIZE);
+    }
+
+    private void saveMembers(int rows) {
+        // 100만 건을 List로 만들지 않도록 Iterable 을 바로 넘긴다
+        Iterable<Member> members = () -> IntStream.range(0, rows)
+            .mapToObj(i -> new Member("member" + i, i % 100))
+            .iterator();
+        memberRepository.saveAllBatched(members, 1_000);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.springdatajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.repository.support.BulkProgress;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class TeamRepositoryTest { // 2차 캐시는 커밋된 데이터만 담기 때문에 트랜잭션을 직접 나눠서 검증한다
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch();
+            teamRepository.deleteAllInBatch();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void teamIsCachedAfterFirstLoad() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("teamA")).getId());
+        Cache cache = emf.getCache();
+        cache.evictAll();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId));
+
+        //then
+        assertThat(cache.contains(Team.class, teamId)).isTrue();
+    }
+
+    @Test
+    void findAllUsesQueryCache() {
+        //given
+        transactionTemplate.executeWithoutResult(status -> {
+            teamRepository.save(new Team("teamA"));
+            teamRepository.save(new Team("teamB"));
+        });
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findAll());
+        long hitCount = statistics.getQueryCacheHitCount();
+        int size = transactionTemplate.execute(status -> teamRepository.findAll().size());
+
+        //then
+        assertThat(size).isEqualTo(2);
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hitCount);
+    }
+
+    @Test
+    void bulkUpdateInvalidatesOnlyAffectedRegion() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("teamA"));
+            memberRepository.save(new Member("member1", 20, team));
+            return team.getId();
+        });
+        transactionTemplate.executeWithoutResult(status -> teamRepository.findById(teamId));
+        Cache cache = emf.getCache();
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(20));
+
+        //then
+        assertThat(cache.contains(Team.class, teamId)).isTrue(); // member 테이블만 바뀌었으니 Team 캐시는 그대로다
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("update Team t set t.name = :name")
+            .setParameter("name", "teamB")
+            .executeUpdate());
+
+        //then
+        assertThat(cache.contains(Team.class, teamId)).isFalse(); // JPQL 벌크 연산은 해당 엔티티 캐시 영역을 비운다
+        String name = transactionTemplate.execute(status -> teamRepository.findById(teamId).get().getName());
+        assertThat(name).isEqualTo("teamB");
+    }
+
+    @Test
+    void bulkDeleteEmptyTeamsInChunks() {
+        //given
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = teamRepository.save(new Team("teamA"));
+            memberRepository.save(new Member("member1", 10, teamA));
+            for (int i = 0; i < 4; i++) {
+                teamRepository.save(new Team("empty" + i));
+            }
+        });
+        List<BulkProgress> progress = new ArrayList<>();
+
+        //when
+        long resultCount = teamRepository.bulkDeleteEmptyTeams(2, progress::add); // 트랜잭션 밖: 청크마다 커밋
+
+        //then
+        assertThat(resultCount).isEqualTo(4);
+        assertThat(progress).extracting("chunkRows").containsExactly(2, 2);
+        assertThat(teamRepository.findAll()).extracting("name").containsExactly("teamA");
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.springdatajpa.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class OptimisticRetryAspectTest { // 스프링 컨텍스트 없이 프록시만 만들어서 재시도 동작을 검증한다
+
+    private MeterRegistry meterRegistry;
+    private ConflictingTarget target;
+    private ConflictingTarget proxy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new ConflictingTarget();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new OptimisticRetryAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void retriesUntilSuccess() {
+        //given
+        target.conflicts = 2;
+
+        //when
+        String result = proxy.update();
+
+        //then
+        assertThat(result).isEqualTo("ok");
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(meterRegistry.counter("datajpa.optimistic.retries", "method", "ConflictingTarget.update").count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        //given
+        target.conflicts = 10;
+
+        //when, then
+        assertThatThrownBy(() -> proxy.update()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(3);
+        assertThat(meterRegistry.counter("datajpa.optimistic.exhausted", "method", "ConflictingTarget.update").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryOtherExceptions() {
+        assertThatThrownBy(() -> proxy.fail()).isInstanceOf(IllegalStateException.class);
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryInsideOuterTransaction() {
+        //given
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        //when, then
+        assertThatThrownBy(() -> proxy.update()).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(target.calls).isEqualTo(1);
+    }
+
+    @Test
+    void backoffIsBounded() {
+        OptimisticRetry retry = ConflictingTarget.retry();
+        for (int attempt = 1; attempt <= 30; attempt++) {
+            assertThat(OptimisticRetryAspect.backoff(retry, attempt)).isBetween(0L, retry.maxBackoffMillis());
+        }
+    }
+
+    static class ConflictingTarget {
+
+        int conflicts;
+        int calls;
+
+        @OptimisticRetry(maxAttempts = 3, backoffMillis = 1, maxBackoffMillis = 5)
+        public String update() {
+            calls++;
+            if (conflicts-- > 0) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "ok";
+        }
+
+        @OptimisticRetry
+        public void fail() {
+            calls++;
+            throw new IllegalStateException();
+        }
+
+        static OptimisticRetry retry() {
+            try {
+                return ConflictingTarget.class.getMethod("update").getAnnotation(OptimisticRetry.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
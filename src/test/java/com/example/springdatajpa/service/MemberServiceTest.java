@@ -0,0 +1,96 @@
+package com.example.springdatajpa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.repository.MemberRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class MemberServiceTest { // 동시 수정은 커밋된 데이터끼리 부딪혀야 하므로 트랜잭션을 직접 나눈다
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+    }
+
+    @Test
+    void versionIncreasesOnUpdate() {
+        //given
+        Long id = memberRepository.save(new Member("member1", 10)).getId();
+
+        //when
+        memberService.changeUserName(id, "member2");
+
+        //then
+        Member member = memberRepository.findById(id).get();
+        assertThat(member.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void staleUpdateIsRejected() {
+        //given
+        Long id = memberRepository.save(new Member("member1", 10)).getId();
+        Member stale = memberRepository.findById(id).get(); // version 0
+        memberService.changeUserName(id, "member2"); // version 1
+
+        //when, then
+        stale.setAge(20);
+        assertThatThrownBy(() -> memberRepository.save(stale)) // merge -> where version = 0
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        //given
+        Long id = memberRepository.save(new Member("member1", 0)).getId();
+        int threads = 4;
+        int incrementsPerThread = 5;
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        memberService.increaseAge(id); // 충돌하면 새 트랜잭션으로 다시 읽어서 더한다
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(threads * incrementsPerThread);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springdatajpa.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class ConnectionHolderTrackerTest {
+
+    @Autowired
+    private ConnectionHolderTracker holderTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    void trackThreadHoldingConnection() {
+        //when
+        List<ConnectionHolder> holding = transactionTemplate.execute(status -> {
+            em.createQuery("select count(m) from Member m").getSingleResult(); // 트랜잭션이 커넥션을 잡고 있다
+            return holderTracker.holders();
+        });
+
+        //then
+        assertThat(holding).extracting(ConnectionHolder::getThread).contains(Thread.currentThread());
+        assertThat(holderTracker.holders()).extracting(ConnectionHolder::getThread)
+            .doesNotContain(Thread.currentThread()); // 커밋하면서 반납했다
+    }
+}
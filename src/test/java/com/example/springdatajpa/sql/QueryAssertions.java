@@ -0,0 +1,25 @@
+package com.example.springdatajpa.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryAssertions { // 테스트에서 블록 안의 SQL 개수와 N+1 을 검증한다
+
+    private QueryAssertions() {
+    }
+
+    public static QueryCountContext assertMaxQueries(int max, Runnable block) {
+        QueryCountContext context = QueryCounter.measure(block);
+        assertThat(context.getTotal())
+            .as("executed statements (repeated selects: %s)", context.getRepeatedSelects(2))
+            .isLessThanOrEqualTo(max);
+        return context;
+    }
+
+    public static QueryCountContext assertNoRepeatedSelects(Runnable block) {
+        QueryCountContext context = QueryCounter.measure(block);
+        assertThat(context.getRepeatedSelects(2))
+            .as("N+1 suspects")
+            .isEmpty();
+        return context;
+    }
+}
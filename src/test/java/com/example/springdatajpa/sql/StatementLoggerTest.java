@@ -0,0 +1,42 @@
+package com.example.springdatajpa.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest(properties = "datajpa.slow-query.threshold-millis=0") // 모든 SQL 을 느린 SQL 로 본다
+@Transactional
+class StatementLoggerTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Test
+    void slowStatementsLoggedAsynchronously() throws InterruptedException {
+        //given
+        double slow = meterRegistry.counter("datajpa.query.slow").count();
+        double written = meterRegistry.counter("datajpa.statement-log.written").count();
+
+        //when
+        em.createQuery("select m from Member m where m.userName = :userName")
+            .setParameter("userName", "member1")
+            .getResultList();
+
+        //then
+        assertThat(meterRegistry.counter("datajpa.query.slow").count()).isGreaterThan(slow);
+        for (int i = 0; i < 50 && meterRegistry.counter("datajpa.statement-log.written").count() <= written; i++) {
+            Thread.sleep(20); // 로그는 statement-logger 스레드에서 남긴다
+        }
+        assertThat(meterRegistry.counter("datajpa.statement-log.written").count()).isGreaterThan(written);
+        assertThat(meterRegistry.counter("datajpa.statement-log.dropped").count()).isZero();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.springdatajpa.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springdatajpa.entity.Member;
+import com.example.springdatajpa.entity.Team;
+import com.example.springdatajpa.entity.TeamStats;
+import com.example.springdatajpa.repository.MemberRepository;
+import com.example.springdatajpa.repository.TeamRepository;
+import com.example.springdatajpa.repository.TeamStatsRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class TeamStatsTest { // 통계는 커밋 직전에 반영되므로 트랜잭션을 직접 나눠서 검증한다
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    private TeamStatsRebuilder teamStatsRebuilder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteAllInBatch();
+            teamRepository.deleteAllInBatch();
+            teamStatsRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void statsFollowMemberLifecycle() {
+        //given
+        Long[] teamIds = transactionTemplate.execute(status -> {
+            Team teamA = teamRepository.save(new Team("teamA"));
+            Team teamB = teamRepository.save(new Team("teamB"));
+            memberRepository.save(new Member("stats1", 10, teamA));
+            memberRepository.save(new Member("stats2", 20, teamA));
+            memberRepository.save(new Member("stats3", 30, teamB));
+            return new Long[]{teamA.getId(), teamB.getId()};
+        });
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member1 = memberRepository.findByUserName("stats1").get(0);
+            member1.changeTeam(teamRepository.findById(teamIds[1]).get()); // A -> B
+            memberRepository.findByUserName("stats2").get(0).setAge(25);
+            memberRepository.delete(memberRepository.findByUserName("stats3").get(0));
+        });
+
+        //then
+        TeamStats teamA = teamStatsRepository.findById(teamIds[0]).get();
+        TeamStats teamB = teamStatsRepository.findById(teamIds[1]).get();
+        assertThat(teamA.getMemberCount()).isEqualTo(1);
+        assertThat(teamA.getAverageAge()).isEqualTo(25);
+        assertThat(teamB.getMemberCount()).isEqualTo(1);
+        assertThat(teamB.getAgeSum()).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentFirstMembersOfTeam() throws Exception {
+        //given
+        Team team = transactionTemplate.execute(status -> teamRepository.save(new Team("teamA")));
+        transactionTemplate.executeWithoutResult(status -> teamStatsRepository.deleteAllInBatch()); // 통계가 생기기 전에 만든 팀
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        List<Future<?>> saves = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int age = i;
+            saves.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> memberRepository.save(new Member("stats" + age, age, team)));
+            }));
+        }
+        start.countDown();
+        for (Future<?> save : saves) {
+            save.get(10, TimeUnit.SECONDS); // 같은 팀의 통계 row 를 동시에 만들어도 회원 저장은 실패하지 않는다
+        }
+        executor.shutdown();
+
+        //then
+        TeamStats stats = teamStatsRepository.findById(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(threads);
+        assertThat(stats.getAgeSum()).isEqualTo(28);
+    }
+
+    @Test
+    void rollbackLeavesStatsUntouched() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("teamA")).getId());
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(new Member("stats1", 10, teamRepository.findById(teamId).get()));
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertThat(teamStatsRepository.findById(teamId).get().getMemberCount()).isZero(); // 팀을 만들 때 생긴 빈 통계
+    }
+
+    @Test
+    void bulkOperationsAdjustStats() {
+        //given
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("teamA"));
+            memberRepository.save(new Member("stats1", 10, team));
+            memberRepository.save(new Member("stats2", 20, team));
+            memberRepository.save(new Member("stats3", 30, team));
+            return team.getId();
+        });
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(20)); // 10, 21, 31
+        memberRepository.bulkAgePlus(21, 1, progress -> { // 트랜잭션 밖: 청크마다 커밋 -> 10, 22, 32
+        });
+        memberRepository.bulkDeleteByAgeLessThan(15, 10, progress -> { // 10살 삭제
+        });
+
+        //then
+        TeamStats stats = teamStatsRepository.findById(teamId).get();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getAgeSum()).isEqualTo(22 + 32);
+    }
+
+    @Test
+    void batchDeletesAdjustStats() {
+        //given
+        Long[] teamIds = transactionTemplate.execute(status -> {
+            Team teamA = teamRepository.save(new Team("teamA"));
+            Team teamB = teamRepository.save(new Team("teamB"));
+            Member member1 = memberRepository.save(new Member("stats1", 10, teamA));
+            memberRepository.save(new Member("stats2", 20, teamA));
+            return new Long[]{teamA.getId(), teamB.getId(), member1.getId()};
+        });
+
+        //when
+        transactionTemplate.executeWithoutResult(status ->
+            memberRepository.deleteAllByIdInBatch(Collections.singletonList(teamIds[2])));
+        transactionTemplate.executeWithoutResult(status ->
+            teamRepository.deleteAllByIdInBatch(Collections.singletonList(teamIds[1])));
+
+        //then
+        TeamStats teamA = teamStatsRepository.findById(teamIds[0]).get();
+        assertThat(teamA.getMemberCount()).isEqualTo(1);
+        assertThat(teamA.getAgeSum()).isEqualTo(20);
+        assertThat(teamStatsRepository.findById(teamIds[1])).isEmpty();
+    }
+
+    @Test
+    void rebuildMatchesGroupBy() {
+        //given
+        List<Long> teamIds = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Team team = teamRepository.save(new Team("team" + i));
+                for (int j = 0; j < i; j++) {
+                    memberRepository.save(new Member("stats" + i + "-" + j, 10 * j, team));
+                }
+                ids.add(team.getId());
+            }
+            return ids;
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            teamStatsRepository.deleteAllInBatch(); // 통계를 도입하기 전 데이터
+            em.createQuery("update Member m set m.age = m.age + 1").executeUpdate(); // 이벤트 없이 바뀐 데이터
+        });
+
+        //when
+        int rebuilt = teamStatsRebuilder.rebuild();
+
+        //then
+        assertThat(rebuilt).isEqualTo((int) teamRepository.count());
+        for (int i = 0; i < teamIds.size(); i++) {
+            TeamStats stats = teamStatsRepository.findById(teamIds.get(i)).get();
+            assertThat(stats.getMemberCount()).isEqualTo(i);
+            assertThat(stats.getAgeSum()).isEqualTo(10L * i * (i - 1) / 2 + i);
+        }
+    }
+}